@@ -450,6 +450,7 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
 
     private void doCleanup() {
       try {
+        if( H2O.ARGS.pin_frames && _dinfo != null ) _dinfo._adaptedFrame.unpin(_job._key);
         _model.unlock(_job);
       } catch(Throwable t){
         // nada
@@ -915,6 +916,7 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
           sumExp += Math.exp(nb[i*N + P] - maxRow);
         _dinfo.addResponse(new String[]{"__glm_sumExp", "__glm_maxRow"}, _dinfo._adaptedFrame.anyVec().makeDoubles(2, new double[]{sumExp,maxRow}));
       }
+      if( H2O.ARGS.pin_frames ) _dinfo._adaptedFrame.pin(_job._key); // Every iteration rescans the frame
       double testDevOld = Double.NaN;
 
       double oldDev = _validDinfo != null?nullDevTest:nullDevTrain;
@@ -1140,6 +1140,7 @@ public abstract class GLMTask  {
       super(null, dinfo, jobKey);
       _beta = beta;
       _c = c;
+      _pipeline_reduce = true; // Big Gram; fold remote ones as they come
     }
 
     @Override public void chunkInit(){
@@ -1261,6 +1262,7 @@ public abstract class GLMTask  {
       _beta = beta;
       _ymu = null;
       _glmf = glmw;
+      _pipeline_reduce = true; // Big Gram; fold remote ones as they come
     }
 
     public  GLMIterationTask(Key jobKey, DataInfo dinfo, GLMWeightsFun glmw, double [] beta, int c) {
@@ -1269,6 +1271,7 @@ public abstract class GLMTask  {
       _ymu = null;
       _glmf = glmw;
       _c = c;
+      _pipeline_reduce = true;
     }
 
     @Override public boolean handlesSparseData(){return true;}
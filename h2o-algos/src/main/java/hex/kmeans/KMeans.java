@@ -243,6 +243,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         // The model to be built
         model = new KMeansModel(dest(), _parms, new KMeansModel.KMeansOutput(KMeans.this));
         model.delete_and_lock(_job);
+        if( H2O.ARGS.pin_frames ) _train.pin(_job._key);  // Lloyds rescans the frame every iteration
 
         //
         final Vec vecs[] = _train.vecs();
@@ -293,6 +294,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           model.update(_job); // Update model in K/V store
         }
       } finally {
+        if( H2O.ARGS.pin_frames ) _train.unpin(_job._key);
         if( model != null ) model.unlock(_job);
       }
     }
@@ -430,12 +432,16 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     }
 
     @Override public void map(Chunk[] cs) {
-      for( int row = 0; row < cs[0]._len; row++ ) {
-        double[] values = new double[cs.length];
-        // fetch the data - using consistent NA and categorical data handling (same as for training)
-        data(values, cs, row, _means, _mults, _modes);
-        // compute the distance from the (standardized) cluster centroids
-        _tss += hex.genmodel.GenModel.KMeans_distance(_gc, values, _isCats, null, null);
+      double[] values = new double[cs.length];
+      double[][] block = new double[cs.length][BLOCK];
+      for( int from = 0; from < cs[0]._len; from += BLOCK ) {
+        int to = decode(block, cs, cs.length, from);
+        for( int row = from; row < to; row++ ) {
+          // fetch the data - using consistent NA and categorical data handling (same as for training)
+          data(values, block, row-from, _means, _mults, _modes);
+          // compute the distance from the (standardized) cluster centroids
+          _tss += hex.genmodel.GenModel.KMeans_distance(_gc, values, _isCats, null, null);
+        }
       }
     }
 
@@ -464,10 +470,14 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
 
     @Override public void map(Chunk[] cs) {
       double[] values = new double[cs.length];
+      double[][] block = new double[cs.length][BLOCK];
       ClusterDist cd = new ClusterDist();
-      for( int row = 0; row < cs[0]._len; row++ ) {
-        data(values, cs, row, _means, _mults, _modes);
-        _sqr += minSqr(_centers, values, _isCats, cd);
+      for( int from = 0; from < cs[0]._len; from += BLOCK ) {
+        int to = decode(block, cs, cs.length, from);
+        for( int row = from; row < to; row++ ) {
+          data(values, block, row-from, _means, _mults, _modes);
+          _sqr += minSqr(_centers, values, _isCats, cd);
+        }
       }
       _means = _mults = null;
       _modes = null;
@@ -509,16 +519,20 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     @Override public void map(Chunk[] cs) {
       int N = cs.length - (_hasWeight?1:0);
       double[] values = new double[N];
+      double[][] block = new double[N][BLOCK];
       ArrayList<double[]> list = new ArrayList<>();
       Random rand = RandomUtils.getRNG(0);
       ClusterDist cd = new ClusterDist();
 
-      for( int row = 0; row < cs[0]._len; row++ ) {
-        rand.setSeed(_seed + cs[0].start()+row);
-        data(values, cs, row, _means, _mults, _modes);
-        double sqr = minSqr(_centers, values, _isCats, cd);
-        if( _probability * sqr > rand.nextDouble() * _sqr )
-          list.add(values.clone());
+      for( int from = 0; from < cs[0]._len; from += BLOCK ) {
+        int to = decode(block, cs, N, from);
+        for( int row = from; row < to; row++ ) {
+          rand.setSeed(_seed + cs[0].start()+row);
+          data(values, block, row-from, _means, _mults, _modes);
+          double sqr = minSqr(_centers, values, _isCats, cd);
+          if( _probability * sqr > rand.nextDouble() * _sqr )
+            list.add(values.clone());
+        }
       }
 
       _sampled = new double[list.size()][];
@@ -582,12 +596,14 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
 
       // Find closest cluster center for each row
       double[] values = new double[N]; // Temp data to hold row as doubles
+      double[][] block = new double[cs.length][BLOCK]; // Bulk-decoded rows, weights last
       ClusterDist cd = new ClusterDist();
-      for( int row = 0; row < cs[0]._len; row++ ) {
-        double weight = _hasWeight ? cs[N].atd(row) : 1;
+      for( int from = 0, to = 0, row = 0; row < cs[0]._len; row++ ) {
+        if( row == to ) { to = decode(block, cs, cs.length, from = row); }
+        double weight = _hasWeight ? block[N][row-from] : 1;
         if (weight == 0) continue; //skip holdout rows
         assert(weight == 1); //K-Means only works for weight 1 (or weight 0 for holdout)
-        data(values, cs, row, _means, _mults, _modes); // Load row as doubles
+        data(values, block, row-from, _means, _mults, _modes); // Load row as doubles
         closest(_centers, values, _isCats, cd); // Find closest cluster center
         int clu = cd._cluster;
         assert clu != -1;       // No broken rows
@@ -738,11 +754,21 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     }
   }
 
-  private static void data(double[] values, Chunk[] chks, int row, double[] means, double[] mults, int[] modes) {
-    for( int i = 0; i < values.length; i++ ) {
-      double d = chks[i].atd(row);
-      values[i] = data(d, i, means, mults, modes);
-    }
+  // Rows are decoded a block at a time with the bulk Chunk decoders, instead
+  // of a virtual atd() call per cell.
+  private static final int BLOCK = 1024;
+
+  // Decode rows [from,from+BLOCK) of the first ncols chunks; returns the end row
+  private static int decode(double[][] block, Chunk[] chks, int ncols, int from) {
+    int to = Math.min(from + BLOCK, chks[0]._len);
+    for( int i = 0; i < ncols; i++ )
+      chks[i].getDoubles(block[i], from, to);
+    return to;
+  }
+
+  private static void data(double[] values, double[][] block, int row, double[] means, double[] mults, int[] modes) {
+    for( int i = 0; i < values.length; i++ )
+      values[i] = data(block[i][row], i, means, mults, modes);
   }
 
   /**
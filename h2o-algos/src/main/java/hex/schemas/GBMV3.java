@@ -56,7 +56,8 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
       "col_sample_rate_per_tree",
       "min_split_improvement",
       "histogram_type",
-      "max_abs_leafnode_pred"
+      "max_abs_leafnode_pred",
+      "max_leaves"
     };
 
     // Input fields
@@ -81,6 +82,9 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
     @API(help="Maximum absolute value of a leaf node prediction", level = API.Level.expert, gridable = true)
     public double max_abs_leafnode_pred;
 
+    @API(help="Grow trees best-first, splitting the leaf with the largest error reduction, up to this many leaves (0 to grow level by level up to max_depth)", level = API.Level.secondary, gridable = true)
+    public int max_leaves;
+
 //    @API(help = "Quantile for quantile regression (from 0.0 to 1.0)", level = API.Level.secondary, gridable = true)
 //    public double quantile;
   }
@@ -0,0 +1,210 @@
+package hex.tree;
+
+import water.Broadcast;
+import water.Iced;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.util.Log;
+
+import java.util.Arrays;
+
+/** Predictor columns pre-binned into compact integer codes.
+ *
+ *  <p>Every tree level rescans all predictors, decoding each value to a double
+ *  and binning it per tree node.  Columns with at most {@link #MAX_CODES}
+ *  distinct values are instead encoded once per model: a row holds the rank
+ *  of its value among the column's sorted distinct values, shifted so that
+ *  the value 0 (if present) has code 0.  The codes live in new Vecs aligned
+ *  with the training frame, so they compress to 1 or 2 bytes per row, and
+ *  to sparse chunks for mostly-zero columns.  NAs stay NAs.
+ *
+ *  <p>Encoding is lossless: {@link ScoreBuildHistogram} maps a code to its
+ *  value's bin through a small per-histogram table, and recovers the exact
+ *  per-node min/max from the value table.  Columns with more distinct values
+ *  are binned from the raw data as before.
+ *
+ *  <p>Columns whose range or row count does not already bound their number
+ *  of distinct values have it estimated by a small sketch first, so that
+ *  value sets are only gathered for columns likely to qualify.
+ *
+ *  <p>The value tables go to every node once, via a {@link Broadcast}. */
+public final class BinnedColumns extends Iced<BinnedColumns> {
+  /** Most distinct values a column may have to be encoded; codes fit 2 bytes */
+  static final int MAX_CODES = (1<<16)-1;
+  /** Code read for NAs */
+  static final int NA = Integer.MIN_VALUE;
+
+  final double[/*ncols*/][] _vals; // Sorted distinct values, or null if not encoded
+  final int[/*ncols*/] _zero;      // Rank of the value 0, or 0: code = rank - _zero
+  final int[/*ncols*/] _slot;      // Index of the column's code Vec, or -1
+  transient Vec[] _codes;          // Code Vecs, on the node that made them
+
+  private BinnedColumns( double[][] vals ) {
+    _vals = vals;
+    _zero = new int[vals.length];
+    _slot = new int[vals.length];
+    int n = 0;
+    for( int c=0; c<vals.length; c++ ) {
+      _slot[c] = vals[c] == null ? -1 : n++;
+      if( vals[c] != null ) _zero[c] = Math.max(0, Arrays.binarySearch(vals[c], 0));
+    }
+  }
+
+  /** Encode the first ncols columns of fr.
+   *  @return a Broadcast of the encoding, or null if no column qualifies */
+  static Broadcast<BinnedColumns> make( Frame fr, int ncols ) {
+    Vec[] preds = Arrays.copyOf(fr.vecs(), ncols);
+    Vec[] vecs = new Vec[ncols];
+    boolean[] sketch = new boolean[ncols];
+    boolean any = false;
+    for( int c=0; c<ncols; c++ ) { // Constant or all-NA columns are never histogrammed
+      if( !(preds[c].min() < preds[c].max()) ) continue;
+      vecs[c] = preds[c];
+      any |= sketch[c] = !surelyFits(preds[c]);
+    }
+    // Drop the columns whose sketched cardinality overflows, before their
+    // distinct values are gathered
+    if( any ) {
+      long[][] bits = new Sketch(sketch).doAll(preds)._bits;
+      for( int c=0; c<ncols; c++ )
+        if( sketch[c] && Sketch.estimate(bits[c]) > MAX_CODES + (MAX_CODES>>4) )
+          vecs[c] = null;
+    }
+    double[][] vals = new Distinct(vecs).doAll(preds)._vals;
+    int n = 0;
+    for( double[] vs : vals ) if( vs != null ) n++;
+    if( n == 0 ) return null;
+    BinnedColumns bc = new BinnedColumns(vals);
+    Vec[] src = new Vec[n];
+    for( int c=0; c<ncols; c++ ) if( bc._slot[c] >= 0 ) src[bc._slot[c]] = vecs[c];
+    bc._codes = new Encode(bc).doAll(n, Vec.T_NUM, new Frame(src)).outputFrame().vecs();
+    Log.info("Pre-binned " + n + " of " + ncols + " predictor columns into compact codes.");
+    return new Broadcast<>(bc);
+  }
+
+  /** Drop the code Vecs and the cached value tables */
+  static void remove( Broadcast<BinnedColumns> b ) {
+    if( b == null ) return;
+    for( Vec v : b.get()._codes ) v.remove();
+    b.remove();
+  }
+
+  // Integer columns over a short range, and columns with few values, cannot
+  // have too many distinct values
+  private static boolean surelyFits( Vec v ) {
+    return (v.isInt() && v.max()-v.min() < MAX_CODES) || v.length()-v.naCnt() <= MAX_CODES;
+  }
+
+  // Linear-counting cardinality sketch: one bit per hashed value, 8KB per
+  // column, OR'd together.  Accurate to well under 1% around MAX_CODES.
+  private static class Sketch extends MRTask<Sketch> {
+    static final int BITS = 1<<16;
+    final boolean[] _use;       // Columns to sketch
+    long[][] _bits;
+    Sketch( boolean[] use ) { _use = use; }
+    @Override public void map( Chunk[] chks ) {
+      _bits = new long[_use.length][];
+      double[] ds = new double[chks[0]._len];
+      for( int c=0; c<_use.length; c++ ) {
+        if( !_use[c] ) continue;
+        long[] bs = _bits[c] = new long[BITS>>6];
+        chks[c].getDoubles(ds, 0, ds.length);
+        for( double d : ds ) {
+          if( Double.isNaN(d) ) continue;
+          int h = (int)((Double.doubleToLongBits(d)*0x9E3779B97F4A7C15L)>>>48);
+          bs[h>>6] |= 1L<<h;
+        }
+      }
+    }
+    @Override public void reduce( Sketch s ) {
+      if( s._bits == null ) return;
+      if( _bits == null ) { _bits = s._bits; return; }
+      for( int c=0; c<_use.length; c++ )
+        if( _use[c] )
+          for( int i=0; i<_bits[c].length; i++ ) _bits[c][i] |= s._bits[c][i];
+    }
+    // Estimated number of distinct values
+    static double estimate( long[] bs ) {
+      if( bs == null ) return 0;
+      int set = 0;
+      for( long b : bs ) set += Long.bitCount(b);
+      return set == BITS ? Double.POSITIVE_INFINITY : BITS*Math.log((double)BITS/(BITS-set));
+    }
+  }
+
+  // Sorted distinct values of the given columns; a column with too many is dropped
+  private static class Distinct extends MRTask<Distinct> {
+    final boolean[] _use;       // Columns to look at
+    double[][] _vals;
+    boolean[] _over;            // Too many distinct values
+    Distinct( Vec[] vecs ) {
+      _use = new boolean[vecs.length];
+      for( int c=0; c<vecs.length; c++ ) _use[c] = vecs[c] != null;
+    }
+    @Override public void map( Chunk[] chks ) {
+      _vals = new double[_use.length][];
+      _over = new boolean[_use.length];
+      double[] ds = new double[chks[0]._len];
+      for( int c=0; c<_use.length; c++ ) {
+        if( !_use[c] ) continue;
+        chks[c].getDoubles(ds, 0, ds.length);
+        Arrays.sort(ds);        // NaNs sort last
+        int n = 0;
+        for( double d : ds ) {
+          if( Double.isNaN(d) ) break;
+          if( n == 0 || Double.compare(ds[n-1], d) != 0 ) ds[n++] = d;
+        }
+        if( n > MAX_CODES ) _over[c] = true;
+        else _vals[c] = Arrays.copyOf(ds, n);
+      }
+    }
+    @Override public void reduce( Distinct d ) {
+      if( d._vals == null ) return;
+      if( _vals == null ) { _vals = d._vals; _over = d._over; return; }
+      for( int c=0; c<_use.length; c++ ) {
+        if( !_use[c] ) continue;
+        _over[c] |= d._over[c];
+        _vals[c] = _over[c] ? null : merge(_vals[c], d._vals[c]);
+        if( _vals[c] == null ) _over[c] = true;
+      }
+    }
+    @Override public void postGlobal() {
+      if( _vals == null ) _vals = new double[_use.length][];
+      for( int c=0; c<_use.length; c++ )
+        if( !_use[c] || _over[c] || _vals[c].length < 2 ) _vals[c] = null;
+    }
+    // Union of two sorted distinct arrays; null if too large
+    private static double[] merge( double[] a, double[] b ) {
+      double[] r = new double[Math.min(a.length+b.length, MAX_CODES+1)];
+      int i=0, j=0, n=0;
+      while( (i < a.length || j < b.length) && n < r.length ) {
+        int cmp = i == a.length ? 1 : j == b.length ? -1 : Double.compare(a[i], b[j]);
+        r[n++] = cmp <= 0 ? a[i] : b[j];
+        if( cmp <= 0 ) i++;
+        if( cmp >= 0 ) j++;
+      }
+      return n > MAX_CODES ? null : Arrays.copyOf(r, n);
+    }
+  }
+
+  // Write each row's code
+  private static class Encode extends MRTask<Encode> {
+    final BinnedColumns _bc;
+    Encode( BinnedColumns bc ) { _bc = bc; }
+    @Override public void map( Chunk[] chks, NewChunk[] ncs ) {
+      double[] ds = new double[chks[0]._len];
+      for( int c=0; c<_bc._vals.length; c++ ) {
+        int s = _bc._slot[c];
+        if( s < 0 ) continue;
+        double[] vals = _bc._vals[c];
+        chks[s].getDoubles(ds, 0, ds.length);
+        for( double d : ds )
+          if( Double.isNaN(d) ) ncs[s].addNA();
+          else ncs[s].addNum(Arrays.binarySearch(vals, d) - _bc._zero[c], 0);
+      }
+    }
+  }
+}
@@ -51,6 +51,19 @@ public final class DHistogram extends Iced {
   public final long _seed;
   public transient boolean _hasQuantiles;
   public Key _globalQuantilesKey; //key under which original top-level quantiles are stored;
+  // Pre-binned column (see BinnedColumns): bin of each distinct value in
+  // [_min,_maxEx), starting at rank _codeLo; null if there are too many.
+  transient char[] _codeBins;
+  transient int _codeLo;
+  static final int MAX_CODE_BINS = 4096;
+  // Pre-binned column accumulated per distinct value rather than per bin, so
+  // that a sibling's histogram can be had by subtraction (see
+  // ScoreBuildHistogram): counts, sums and sum-squares of each value in
+  // [_min,_maxEx) by rank from _codeLo, then of NAs; one after the other.
+  // Folded into the bins on the driver.
+  public boolean _byValue;      // Accumulate per value
+  public boolean _derived;      // Parent minus sibling; not accumulated
+  double[] _valHist;
 
   static class HistoQuantiles extends Keyed<HistoQuantiles> {
     public HistoQuantiles(Key<HistoQuantiles> key, double[] splitPts) {
@@ -169,6 +182,71 @@ public final class DHistogram extends Iced {
     return _min + (_splitPts == null ? b : _splitPts[b]) / _step;
   }
 
+  // Bin the sorted distinct values of a pre-binned column once, after init()
+  void initCodes( double[] vals ) {
+    int lo = rank(vals, _min), hi = rank(vals, _maxEx);
+    _codeLo = lo;
+    if( hi - lo > MAX_CODE_BINS ) return; // Bin rows one at a time
+    char[] cbs = new char[hi-lo];
+    for( int i=0; i<cbs.length; i++ ) cbs[i] = (char)bin(vals[lo+i]);
+    _codeBins = cbs;
+  }
+  // Number of distinct values in [min,maxEx)
+  static int valueSpan( double[] vals, double min, double maxEx ) { return rank(vals, maxEx) - rank(vals, min); }
+
+  // Per-value accumulation for a pre-binned column, after init()
+  void initValues( double[] vals ) {
+    _codeLo = rank(vals, _min);
+    _valHist = MemoryManager.malloc8d(3*(rank(vals, _maxEx) - _codeLo + 1));
+  }
+  // Slots rows are gathered into: values or bins
+  int accumLength() { return _valHist != null ? _valHist.length/3 : _bins.length; }
+
+  // Per-value histogram of the rows of parent p that are not in sibling s
+  void subtract( DHistogram p, DHistogram s, double[] vals ) {
+    final int lo = rank(vals, _min), len = rank(vals, _maxEx) - lo + 1;
+    final int plo = rank(vals, p._min), plen = p._valHist.length/3;
+    final int slo = rank(vals, s._min), slen = s._valHist.length/3;
+    final double[] vh = _valHist = MemoryManager.malloc8d(3*len), pvh = p._valHist, svh = s._valHist;
+    for( int i=0; i<len; i++ ) {
+      int pi = i == len-1 ? plen-1 : lo+i-plo; // Our values are a subset of the parent's
+      int si = i == len-1 ? slen-1 : lo+i-slo;
+      if( pi < 0 || pi >= plen || (i < len-1 && pi == plen-1) ) continue;
+      boolean inS = si >= 0 && si < slen && (i == len-1 || si < slen-1);
+      double c = pvh[pi] - (inS ? svh[si] : 0);
+      if( c <= 1e-9*pvh[pi] ) continue; // Nothing left but rounding error
+      vh[i]       = c;
+      vh[len+i]   = pvh[plen+pi]   - (inS ? svh[slen+si]   : 0);
+      vh[2*len+i] = pvh[2*plen+pi] - (inS ? svh[2*slen+si] : 0);
+    }
+  }
+
+  // Add the per-value histogram into the bins, and find the exact min/max.
+  // Done on the driver after the reduce, so no synchronization needed.
+  void foldValues( double[] vals ) {
+    if( _bins == null ) init();
+    final int lo = rank(vals, _min), len = _valHist.length/3;
+    final double[] vh = _valHist;
+    for( int i=0; i<len; i++ ) {
+      double c = vh[i];
+      if( c == 0 && vh[len+i] == 0 && vh[2*len+i] == 0 ) continue;
+      int b = i == len-1 ? _bins.length-1 : bin(vals[lo+i]); // NAs go right
+      _bins[b] += c;
+      _sums[b] += vh[len+i];
+      _ssqs[b] += vh[2*len+i];
+      if( c != 0 && i < len-1 ) {
+        if( vals[lo+i] < _min2  ) _min2  = vals[lo+i];
+        if( vals[lo+i] > _maxIn ) _maxIn = vals[lo+i];
+      }
+    }
+  }
+
+  // Index of the first value >= d
+  private static int rank( double[] vals, double d ) {
+    int i = Arrays.binarySearch(vals, d);
+    return i < 0 ? -i-1 : i;
+  }
+
   public int nbins() { return _nbin; }
   public double bins(int b) { return _bins[b]; }
 
@@ -244,6 +322,7 @@ public final class DHistogram extends Iced {
     if( _min2  > dsh._min2  ) _min2  = dsh._min2 ;
     if( _maxIn < dsh._maxIn ) _maxIn = dsh._maxIn;
     add0(dsh);
+    if( _valHist != null && dsh._valHist != null ) ArrayUtils.add(_valHist,dsh._valHist);
   }
 
   // Inclusive min & max
@@ -321,6 +400,19 @@ public final class DHistogram extends Iced {
     AtomicUtils.DoubleArray.add(_ssqs,b,(float)yy);
   }
 
+  // Merge a thread's private counts, sums and sum-squares, laid out one after
+  // the other (see ScoreBuildHistogram), per bin or per value.  Done after all local work, so no
+  // synchronization needed.
+  void addPrivate( double[] buf ) {
+    if( _valHist != null ) { ArrayUtils.add(_valHist, buf); return; }
+    final int len = _bins.length;
+    for( int b=0; b<len; b++ ) {
+      _bins[b] += buf[b];
+      _sums[b] += buf[len+b];
+      _ssqs[b] += buf[2*len+b];
+    }
+  }
+
   // Merge two equal histograms together.
   // Done in a F/J reduce, so no synchronization needed.
   public void add0( DHistogram dsh ) {
@@ -24,7 +24,7 @@ import java.util.*;
  *
  *  @author Cliff Click
  */
-public class DTree extends Iced {
+public class DTree extends DeltaIced {
   final String[] _names; // Column names
   final int _ncols;      // Active training columns
   final char _nclass;    // #classes, or 1 for regression trees
@@ -265,6 +265,12 @@ public class DTree extends Iced {
   public static class UndecidedNode extends Node {
     public transient DHistogram[] _hs; //(up to) one histogram per column
     public final int _scoreCols[];      // A list of columns to score; could be null for all
+    // For the larger child of a split: the parent's histograms and the smaller
+    // sibling's nid, to get histograms by subtraction (see ScoreBuildHistogram)
+    transient DHistogram[] _parentHs;
+    transient int _sibling;
+    // Best-first growth: the split this leaf would make, once histogrammed
+    transient Split _best;
     public UndecidedNode( DTree tree, int pid, DHistogram[] hs ) {
       super(tree,pid);
       assert hs.length==tree._ncols;
@@ -402,6 +408,53 @@ public class DTree extends Iced {
     @Override protected int size() { throw H2O.fail(); }
   }
 
+  // Pick the best column from the given histograms.  Find the column with the
+  // best split (lowest score).  Unlike RF, DRF scores on all columns and
+  // selects splits on all columns.
+  static Split bestCol( UndecidedNode u, DHistogram hs[] ) {
+    DTree.Split best = new DTree.Split(-1,-1,null,(byte)0,Double.MAX_VALUE,Double.MAX_VALUE,Double.MAX_VALUE,0L,0L,0,0);
+    if( hs == null ) return best;
+    final int maxCols = u._scoreCols == null /* all cols */ ? hs.length : u._scoreCols.length;
+    List<FindSplits> findSplits = new ArrayList<>();
+    //total work is to find the best split across sum_over_cols_to_split(nbins)
+    long nbinsSum = 0;
+    for( int i=0; i<maxCols; i++ ) {
+      int col = u._scoreCols == null ? i : u._scoreCols[i];
+      if( hs[col]==null || hs[col].nbins() <= 1 ) continue;
+      nbinsSum += hs[col].nbins();
+    }
+    // for small work loads, do a serial loop, otherwise, submit work to FJ thread pool
+    final boolean isSmall = (nbinsSum <= 1024); //heuristic - 50 cols with 20 nbins, or 1 column with 1024 bins, etc.
+    for( int i=0; i<maxCols; i++ ) {
+      int col = u._scoreCols == null ? i : u._scoreCols[i];
+      if( hs[col]==null || hs[col].nbins() <= 1 ) continue;
+      FindSplits fs = new FindSplits(hs, col, u._nid, u._tree._parms._min_rows);
+      findSplits.add(fs);
+      if (isSmall) fs.compute();
+    }
+    if (!isSmall) jsr166y.ForkJoinTask.invokeAll(findSplits);
+    for( FindSplits fs : findSplits) {
+      DTree.Split s = fs._s;
+      if( s == null ) continue;
+      if (s.se() < best.se()) best = s;
+    }
+    return best;
+  }
+
+  static class FindSplits extends RecursiveAction {
+    FindSplits(DHistogram[] hs, int col, int nid, double minRows) {
+      _hs = hs; _col = col; _nid = nid; _minRows = minRows;
+    }
+    final DHistogram[] _hs;
+    final int _col;
+    DTree.Split _s;
+    final int _nid;
+    final double _minRows;
+    @Override public void compute() {
+      _s = _hs[_col].scoreMSE(_col, _minRows);
+    }
+  }
+
   // --------------------------------------------------------------------------
   // Internal tree nodes which split into several children over a single
   // column.  Includes a split-decision: which child does this Row belong to?
@@ -424,50 +477,7 @@ public class DTree extends Iced {
     }
 
     // Pick the best column from the given histograms
-    public Split bestCol( UndecidedNode u, DHistogram hs[] ) {
-      // Find the column with the best split (lowest score).  Unlike RF, DRF
-      // scores on all columns and selects splits on all columns.
-      DTree.Split best = new DTree.Split(-1,-1,null,(byte)0,Double.MAX_VALUE,Double.MAX_VALUE,Double.MAX_VALUE,0L,0L,0,0);
-      if( hs == null ) return best;
-      final int maxCols = u._scoreCols == null /* all cols */ ? hs.length : u._scoreCols.length;
-      List<FindSplits> findSplits = new ArrayList<>();
-      //total work is to find the best split across sum_over_cols_to_split(nbins)
-      long nbinsSum = 0;
-      for( int i=0; i<maxCols; i++ ) {
-        int col = u._scoreCols == null ? i : u._scoreCols[i];
-        if( hs[col]==null || hs[col].nbins() <= 1 ) continue;
-        nbinsSum += hs[col].nbins();
-      }
-      // for small work loads, do a serial loop, otherwise, submit work to FJ thread pool
-      final boolean isSmall = (nbinsSum <= 1024); //heuristic - 50 cols with 20 nbins, or 1 column with 1024 bins, etc.
-      for( int i=0; i<maxCols; i++ ) {
-        int col = u._scoreCols == null ? i : u._scoreCols[i];
-        if( hs[col]==null || hs[col].nbins() <= 1 ) continue;
-        FindSplits fs = new FindSplits(hs, col, u._nid);
-        findSplits.add(fs);
-        if (isSmall) fs.compute();
-      }
-      if (!isSmall) jsr166y.ForkJoinTask.invokeAll(findSplits);
-      for( FindSplits fs : findSplits) {
-        DTree.Split s = fs._s;
-        if( s == null ) continue;
-        if (s.se() < best.se()) best = s;
-      }
-      return best;
-    }
-
-    class FindSplits extends RecursiveAction {
-      FindSplits(DHistogram[] hs, int col, int nid) {
-        _hs = hs; _col = col; _nid = nid;
-      }
-      final DHistogram[] _hs;
-      final int _col;
-      DTree.Split _s;
-      final int _nid;
-      @Override public void compute() {
-        _s = _hs[_col].scoreMSE(_col, _tree._parms._min_rows);
-      }
-    }
+    public Split bestCol( UndecidedNode u, DHistogram hs[] ) { return DTree.bestCol(u, hs); }
 
     public DecidedNode( UndecidedNode n, DHistogram hs[] ) {
       super(n._tree,n._pid,n._nid); // Replace Undecided with this DecidedNode
@@ -489,6 +499,12 @@ public class DTree extends Iced {
         assert nhists==null || nhists.length==_tree._ncols;
         _nids[b] = nhists == null ? -1 : makeUndecidedNode(nhists)._nid;
       }
+      if( _nids[0] != -1 && _nids[1] != -1 ) { // Larger child may be this node less the smaller
+        int small = _split._n0 <= _split._n1 ? 0 : 1;
+        UndecidedNode big = _tree.undecided(_nids[1-small]);
+        big._parentHs = hs;
+        big._sibling = _nids[small];
+      }
     }
 
     public int ns( Chunk chks[], int row ) {
@@ -1,10 +1,17 @@
 package hex.tree;
 
 import hex.Distribution;
+import water.Broadcast;
+import water.H2O;
 import water.H2O.H2OCountedCompleter;
+import water.Key;
 import water.MRTask;
+import water.MemoryManager;
 import water.fvec.C0DChunk;
 import water.fvec.Chunk;
+import water.fvec.Vec;
+import water.nbhm.NonBlockingHashMap;
+import water.nbhm.NonBlockingHashMapLong;
 import water.util.ArrayUtils;
 import water.util.AtomicUtils;
 
@@ -31,6 +38,36 @@ import water.util.AtomicUtils;
  *
  * <p>The other result is a prediction "score" for the whole dataset, based on
  * the previous passes' DHistograms.
+ *
+ * <p>Each chunk's counts are gathered locally, then added to the node-shared
+ * DHistograms.  Adding them atomically contends on hot bins when many threads
+ * share few bins; if all threads' copies of the histograms fit in
+ * {@link #MAX_PRIVATE_BINS} bins, each F/J thread instead adds into its own
+ * private copy, and the copies are merged once all local work is done.
+ * <code>-histo_accum</code> forces either way.
+ *
+ * <p>Histogram subtraction: a split node's rows all go to its two children,
+ * so the larger child's histogram is the parent's less the smaller child's,
+ * and only the smaller child needs building.  Children re-bin their columns
+ * though, so bins do not line up with the parent's; values do.  Pre-binned
+ * columns (see {@link BinnedColumns}) with up to {@link
+ * DHistogram#MAX_CODE_BINS} distinct values in range are therefore gathered
+ * per value, subtracted per value, and folded into each node's own bins on
+ * the driver - giving the counts and min/max of a full pass.  Sums and
+ * sum-squares are added in another order, so only match up to rounding.  The
+ * per-value histograms of a level are kept as the next level's parents, so
+ * this is done while they fit in {@link #MAX_VALUE_CELLS}, and while what
+ * every other node sends back of them fits in {@link #MAX_VALUE_WIRE}.
+ *
+ * <p>Live rows: once a row lands in a leaf it never moves again, yet every
+ * level used to re-read its NID and re-score it.  Each node instead keeps,
+ * per chunk of a tree's NIDs Vec, the chunk-local rows still moving down the
+ * tree, in row order.  The list is built on the first level and compacted in
+ * place as rows are decided, so deeper levels score and sort only rows in
+ * still-growing nodes.  Rows visit in the same order as a full scan, so the
+ * histograms are identical.  Lists come from the {@link MemoryManager}, shrink
+ * once mostly dead, and are dropped with {@link #dropLiveRows} as each tree is
+ * done.  {@code -disable_live_rows} scores every row on every level instead.
  */
 public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
   final int   _k;    // Which tree
@@ -42,8 +79,37 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
   // Histograms for every tree, split & active column
   final DHistogram _hcs[/*tree-relative node-id*/][/*column*/];
   final Distribution.Family _family;
+  // Pre-binned predictors, or null; their code columns start at _codeIdx
+  final Broadcast<BinnedColumns> _binned;
+  final int _codeIdx;
+  transient BinnedColumns _bc;
+
+  /** Most bins, over all threads, to give every thread a private copy of */
+  static final long MAX_PRIVATE_BINS = 1L<<22;
+  /** Most per-value histogram cells per tree level, per tree */
+  static final long MAX_VALUE_CELLS = 1L<<22;
+  /** Most bytes of per-value histograms per tree level, per tree, sent
+   *  between nodes in the reduce */
+  static final long MAX_VALUE_WIRE = 1L<<24;
+  transient int _maxAccum;      // Largest histogram, in bins or values
+  // Per-thread private histograms, by thread id; null when atomically
+  // updating the shared ones.  Node-local.
+  transient NonBlockingHashMapLong<double[/*nid*/][/*col*/][]> _private;
+
+  // Chunk-local rows still moving down the tree: _rows[0.._n)
+  static final class LiveRows {
+    int[] _rows;
+    int _n;
+    LiveRows( int[] rows, int n ) { _rows = rows; _n = n; }
+  }
+  // Node-local live rows, by NIDs Vec and chunk index
+  static final NonBlockingHashMap<Key,LiveRows[]> LIVE = new NonBlockingHashMap<>();
 
   public ScoreBuildHistogram(H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram hcs[][], Distribution.Family family) {
+    this(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, null, -1);
+  }
+
+  public ScoreBuildHistogram(H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram hcs[][], Distribution.Family family, Broadcast<BinnedColumns> binned, int codeIdx) {
     super(cc);
     _k    = k;
     _ncols= ncols;
@@ -53,6 +119,8 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
     _leaf = leaf;
     _hcs  = hcs;
     _family = family;
+    _binned = binned;
+    _codeIdx = codeIdx;
   }
 
   /** Marker for already decided row. */
@@ -69,6 +137,7 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
   @Override public void setupLocal( ) {
     // Init all the internal tree fields after shipping over the wire
     _tree.init_tree();
+    _bc = _binned == null ? null : _binned.get();
     // Allocate local shared memory histograms
     for( int l=_leaf; l<_tree._len; l++ ) {
       DTree.UndecidedNode udn = _tree.undecided(l);
@@ -76,19 +145,133 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
       int sCols[] = udn._scoreCols;
       if( sCols != null ) { // Sub-selecting just some columns?
         for( int col : sCols ) // For tracked cols
-          hs[col].init();
+          init(hs[col], col);
       } else {                 // Else all columns
         for( int j=0; j<_ncols; j++) // For all columns
           if( hs[j] != null )        // Tracking this column?
-            hs[j].init();
+            init(hs[j], j);
       }
     }
+    // Private copies pay off when contention is likely, i.e. many threads
+    // share few bins, and that is also when they are cheap.
+    int nthreads = H2O.ARGS.nthreads;
+    long nbins = 0;
+    for( DHistogram hs[] : _hcs )
+      if( hs != null )
+        for( DHistogram h : hs )
+          if( h != null && h._bins != null && !h._derived ) {
+            nbins += h.accumLength();
+            _maxAccum = Math.max(_maxAccum, h.accumLength());
+          }
+    String mode = H2O.ARGS.histo_accum; // Or forced, for benchmarks
+    boolean priv = mode.equals("auto") ? nthreads > 1 && nbins*nthreads <= MAX_PRIVATE_BINS : mode.equals("private");
+    _private = priv ? new NonBlockingHashMapLong<double[][][]>() : null;
+  }
+
+  // All local maps are done: merge the private histograms into the shared ones
+  @Override protected void closeLocal() {
+    if( _private == null ) return;
+    for( double[][][] bufs : _private.values() )
+      for( int n=0; n<bufs.length; n++ )
+        for( int c=0; c<bufs[n].length; c++ )
+          if( bufs[n][c] != null ) _hcs[n][c].addPrivate(bufs[n][c]);
+    _private = null;
+  }
+
+  // This thread's private counts, sums and sum-squares for split n, column c
+  private double[] privateHisto( int n, int c, DHistogram rh ) {
+    long tid = Thread.currentThread().getId();
+    double[][][] bufs = _private.get(tid);
+    if( bufs == null ) _private.put(tid, bufs = new double[_hcs.length][_ncols][]); // Only this thread adds tid
+    double[] buf = bufs[n][c];
+    if( buf == null ) bufs[n][c] = buf = MemoryManager.malloc8d(3*rh.accumLength());
+    return buf;
+  }
+
+  private void init( DHistogram h, int col ) {
+    h.init();
+    if( _bc == null || _bc._vals[col] == null || h._derived ) return;
+    if( h._byValue ) h.initValues(_bc._vals[col]);
+    else h.initCodes(_bc._vals[col]);
+  }
+
+  /** Pick, on the driver, which of a level's histograms to gather per value,
+   *  and which to get as their parent less their sibling.  */
+  static void planSubtraction( DTree tree, int leaf, DHistogram hcs[][], BinnedColumns bc ) {
+    planSubtraction(tree, leaf, hcs, bc, MAX_VALUE_CELLS, H2O.CLOUD.size());
+  }
+  /** Same, within the given per-value cell budget, for a pass over the given
+   *  number of nodes */
+  static void planSubtraction( DTree tree, int leaf, DHistogram hcs[][], BinnedColumns bc, long maxCells, int nodes ) {
+    if( bc == null ) return;
+    long cells = 0;
+    for( DHistogram hs[] : hcs )
+      if( hs != null )
+      for( int c=0; c<hs.length; c++ )
+        if( byValue(hs[c], bc._vals[c]) )
+          cells += 3*(DHistogram.valueSpan(bc._vals[c], hs[c]._min, hs[c]._maxEx)+1);
+    if( cells > maxCells ) return; // Bin as usual; no subtraction on this or the next level
+    if( cells*8*(nodes-1) > MAX_VALUE_WIRE ) return; // Too much to ship back from every node
+    for( DHistogram hs[] : hcs )
+      if( hs != null )
+      for( int c=0; c<hs.length; c++ )
+        if( byValue(hs[c], bc._vals[c]) ) hs[c]._byValue = true;
+    for( int n=0; n<hcs.length; n++ ) {
+      DTree.UndecidedNode u = tree.undecided(n+leaf);
+      if( u._parentHs == null || hcs[n] == null || hcs[u._sibling-leaf] == null ) continue;
+      DTree.UndecidedNode sib = tree.undecided(u._sibling);
+      DHistogram shs[] = hcs[u._sibling-leaf];
+      for( int c=0; c<hcs[n].length; c++ ) {
+        DHistogram h = hcs[n][c], p = u._parentHs[c], s = shs[c];
+        if( h == null || !h._byValue || p == null || p._valHist == null || s == null || !s._byValue ) continue;
+        if( !scores(u, c) || !scores(sib, c) ) continue; // Only scored columns are gathered
+        h._byValue = false;
+        h._derived = true;
+      }
+    }
+  }
+
+  /** Subtract and fold the per-value histograms, on the driver after the
+   *  level's pass, for picking splits from the bins as usual. */
+  static void finishSubtraction( DTree tree, int leaf, DHistogram hcs[][], BinnedColumns bc ) {
+    if( bc == null ) return;
+    for( int n=0; n<hcs.length; n++ ) {
+      DTree.UndecidedNode u = tree.undecided(n+leaf);
+      if( hcs[n] == null ) continue;
+      for( int c=0; c<hcs[n].length; c++ ) {
+        DHistogram h = hcs[n][c];
+        if( h == null ) continue;
+        if( h._derived ) h.subtract(u._parentHs[c], hcs[u._sibling-leaf][c], bc._vals[c]);
+        if( h._valHist != null ) h.foldValues(bc._vals[c]);
+      }
+    }
+    for( int n=0; n<hcs.length; n++ )
+      tree.undecided(n+leaf)._parentHs = null; // Parents no longer needed
+  }
+
+  /** Per-value histogram cells held by a node's histograms */
+  static long valueCells( DHistogram hs[] ) {
+    long cells = 0;
+    if( hs != null )
+      for( DHistogram h : hs )
+        if( h != null && h._valHist != null ) cells += h._valHist.length;
+    return cells;
+  }
+
+  private static boolean byValue( DHistogram h, double[] vals ) {
+    return h != null && vals != null &&
+      !Double.isInfinite(vals[0]) && !Double.isInfinite(vals[vals.length-1]) && // Infinities are out of range
+      DHistogram.valueSpan(vals, h._min, h._maxEx) <= DHistogram.MAX_CODE_BINS;
+  }
+  private static boolean scores( DTree.UndecidedNode u, int c ) {
+    return u._scoreCols == null || ArrayUtils.find(u._scoreCols, c) >= 0;
   }
 
   @Override final public void map( Chunk[] chks ) {
     final Chunk wrks = chks[_ncols+2]; //fitting target (same as response for DRF, residual for GBM)
     final Chunk nids = chks[_ncols+3];
-    final Chunk weight = chks.length >= _ncols+5 ? chks[_ncols+4] : new C0DChunk(1, chks[0].len());
+    final int nfixed = _codeIdx >= 0 ? _codeIdx : chks.length; // Code columns come last
+    final Chunk weight = nfixed >= _ncols+5 ? chks[_ncols+4] : new C0DChunk(1, chks[0].len());
 
     // Pass 1: Score a prior partially-built tree model, and make new Node
     // assignments to every row.  This involves pulling out the current
@@ -96,17 +279,53 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
     // criteria, and assigning the row to a new child UndecidedNode (and
     // giving it an improved prediction).
     int nnids[] = new int[nids._len];
-    if( _leaf > 0)            // Prior pass exists?
-      score_decide(chks,nids,nnids);
-    else                      // Just flag all the NA rows
+    LiveRows[] lrs = H2O.ARGS.disable_live_rows ? null : liveRows(nids.vec());
+    LiveRows live = _leaf > 0 && lrs != null ? lrs[nids.cidx()] : null;
+    if( _leaf > 0) {          // Prior pass exists?
+      if( live == null ) {    // Not cached here: score all rows
+        int[] rows = MemoryManager.malloc4(nids._len);
+        for( int row=0; row<rows.length; row++ ) rows[row] = row;
+        live = new LiveRows(rows, rows.length);
+        if( lrs != null ) lrs[nids.cidx()] = live;
+      }
+      score_decide(chks,nids,nnids,live);
+    } else {                  // Just flag all the NA rows
+      int[] rows = MemoryManager.malloc4(nids._len);
+      int n = 0;
       for( int row=0; row<nids._len; row++ )
         if( isDecidedRow((int)nids.atd(row)) ) nnids[row] = -1;
+        else rows[n++] = row;
+      live = new LiveRows(rows, n);
+      if( lrs != null ) lrs[nids.cidx()] = live;
+    }
 
     // Pass 2: accumulate all rows, cols into histograms
 //    if (_subset)
 //      accum_subset(chks,wrks,weight,nnids); //for debugging - simple code
 //    else
-      accum_all   (chks,wrks,weight,nnids); //generally faster
+      accum_all   (chks,wrks,weight,nnids,live._rows,live._n); //generally faster
+  }
+
+  // This node's live-row lists for a NIDs Vec, one slot per chunk
+  private static LiveRows[] liveRows( Vec nids ) {
+    LiveRows[] lrs = LIVE.get(nids._key);
+    if( lrs == null ) {
+      LiveRows[] old = LIVE.putIfAbsent(nids._key, lrs = new LiveRows[nids.nChunks()]);
+      if( old != null ) lrs = old;
+    }
+    return lrs;
+  }
+
+  /** Drop the live-row lists of any of these (NIDs) Vecs, on all nodes */
+  static void dropLiveRows( Vec[] vecs ) {
+    Key[] keys = new Key[vecs.length];
+    for( int i=0; i<vecs.length; i++ ) keys[i] = vecs[i]._key;
+    new DropLiveRows(keys).doAllNodes();
+  }
+  private static class DropLiveRows extends MRTask<DropLiveRows> {
+    final Key[] _keys;
+    DropLiveRows( Key[] keys ) { _keys = keys; }
+    @Override public void setupLocal() { for( Key k : _keys ) LIVE.remove(k); }
   }
 
   @Override public void reduce( ScoreBuildHistogram sbh ) {
@@ -130,8 +349,12 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
   // assigned DecidedNode, "scoring" the row against that Node's decision
   // criteria, and assigning the row to a new child UndecidedNode (and
   // giving it an improved prediction).
-  private void score_decide(Chunk chks[], Chunk nids, int nnids[]) {
-    for( int row=0; row<nids._len; row++ ) { // Over all rows
+  // Only live rows are visited; those decided now are dropped from the list.
+  private void score_decide(Chunk chks[], Chunk nids, int nnids[], LiveRows live) {
+    final int[] rows = live._rows;
+    int n = 0;
+    for( int i=0; i<live._n; i++ ) { // Over all live rows
+      int row = rows[i];
       int nid = (int)nids.at8(row);          // Get Node to decide from
       if( isDecidedRow(nid)) {               // already done
         nnids[row] = nid-_leaf;              // will be negative, flagging a completed row
@@ -140,9 +363,14 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
       // Score row against current decisions & assign new split
       boolean oob = isOOBRow(nid);
       if( oob ) nid = oob2Nid(nid); // sampled away - we track the position in the tree
+      if( _tree.node(nid) instanceof DTree.UndecidedNode ) { // Best-first: a leaf waiting to be split
+        nnids[row] = -1;
+        rows[n++] = row;
+        continue;
+      }
       DTree.DecidedNode dn = _tree.decided(nid);
       if( dn._split._col == -1 ) { // Might have a leftover non-split
-        if( DTree.isRootNode(dn) ) { nnids[row] = nid-_leaf; continue; }
+        if( DTree.isRootNode(dn) ) { nnids[row] = nid-_leaf; rows[n++] = row; continue; }
         nid = dn._pid;             // Use the parent split decision then
         int xnid = oob ? nid2Oob(nid) : nid;
         nids.set(row, xnid);
@@ -155,9 +383,13 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
       if( !isDecidedRow(nid) ) {
         if( oob ) nid = nid2Oob(nid); // Re-apply OOB encoding
         nids.set(row, nid);
+        rows[n++] = row;              // Still moving; decided rows stay put for good
       }
       nnids[row] = nid-_leaf;
     }
+    live._n = n;
+    if( n < rows.length>>2 )    // Mostly dead: give back the space
+      live._rows = MemoryManager.arrayCopyOf(rows, n);
   }
 
 // For debugging - simple code
@@ -198,52 +430,81 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
    * @param wrks predicted response
    * @param weight observation weights
    * @param nnids node ids
+   * @param live rows still moving down the tree, in order; others are skipped
+   * @param nlive number of live rows
    */
-  private void accum_all(Chunk chks[], Chunk wrks, Chunk weight, int nnids[]) {
+  private void accum_all(Chunk chks[], Chunk wrks, Chunk weight, int nnids[], int live[], int nlive) {
     // Sort the rows by NID, so we visit all the same NIDs in a row
     // Find the count of unique NIDs in this chunk
     int nh[] = new int[_hcs.length+1];
-    for( int i : nnids ) if( i >= 0 ) nh[i+1]++;
+    for( int i=0; i<nlive; i++ ) if( nnids[live[i]] >= 0 ) nh[nnids[live[i]]+1]++;
     // Rollup the histogram of rows-per-NID in this chunk
     for( int i=0; i<_hcs.length; i++ ) nh[i+1] += nh[i];
     // Splat the rows into NID-groups
-    int rows[] = new int[nnids.length];
-    for( int row=0; row<nnids.length; row++ )
+    int rows[] = new int[nh[_hcs.length]];
+    for( int i=0; i<nlive; i++ ) {
+      int row = live[i];
       if( nnids[row] >= 0 )
         rows[nh[nnids[row]]++] = row;
+    }
     // rows[] has Chunk-local ROW-numbers now, in-order, grouped by NID.
     // nh[] lists the start of each new NID, and is indexed by NID+1.
     final DHistogram hcs[][] = _hcs;
     if( hcs.length==0 ) return; // Unlikely fast cutout
     // Local temp arrays, no atomic updates.
-    double bins[] = new double[Math.max(_nbins, _nbins_cats)];
-    double sums[] = new double[Math.max(_nbins, _nbins_cats)];
-    double ssqs[] = new double[Math.max(_nbins, _nbins_cats)];
+    int blen = Math.max(Math.max(_nbins, _nbins_cats), _maxAccum);
+    double bins[] = new double[blen];
+    double sums[] = new double[blen];
+    double ssqs[] = new double[blen];
     int cols = _ncols;
     int hcslen = hcs.length;
 
     double[] ws = new double[chks[0]._len];
     double[] cs = new double[chks[0]._len];
     double[] ys = new double[chks[0]._len];
+    int[] codes = _bc == null ? null : new int[chks[0]._len];
     //Note: for (n) for (c) is faster than for(c) for(n) for Airlines and MNIST data for DRF and GBM and stochastic GBM
     weight.getDoubles(ws,0,ws.length);
     wrks.getDoubles(ys,0,ys.length);
     for (int c = 0; c < cols; c++) {
       boolean extracted = false;
+      // Pre-binned column?  Read its 1-2 byte codes instead of the raw values
+      int slot = _bc == null ? -1 : _bc._slot[c];
       for (int n = 0; n < hcslen; n++) {
         int sCols[] = _tree.undecided(n + _leaf)._scoreCols; // Columns to score (null, or a list of selected cols)
         if (sCols == null || ArrayUtils.find(sCols,c) >= 0) {
           if (!extracted) {
-            chks[c].getDoubles(cs, 0, cs.length);
+            if (slot >= 0) chks[_codeIdx + slot].getIntegers(codes, 0, codes.length, BinnedColumns.NA);
+            else chks[c].getDoubles(cs, 0, cs.length);
             extracted = true;
           }
-          overAllRows(cs, ys, ws, rows, hcs[n][c], n == 0 ? 0 : nh[n - 1], nh[n], bins, sums, ssqs);
+          if (hcs[n][c] != null && hcs[n][c]._derived) continue; // Parent less sibling, on the driver
+          double[] priv = _private == null || hcs[n][c] == null ? null : privateHisto(n, c, hcs[n][c]);
+          if (slot >= 0)
+            overAllRows(codes, _bc._vals[c], _bc._zero[c], ys, ws, rows, hcs[n][c], n == 0 ? 0 : nh[n - 1], nh[n], bins, sums, ssqs, priv);
+          else
+            overAllRows(cs, ys, ws, rows, hcs[n][c], n == 0 ? 0 : nh[n - 1], nh[n], bins, sums, ssqs, priv);
         }
       }
     }
   }
 
-  private static void overAllRows(double [] cs, double [] ys, double [] ws, int[] rows, final DHistogram rh, int lo, int hi, double[] bins, double[] sums, double[] ssqs) {
+  private static void overAllRows(int[] codes, double[] vals, int zero, double [] ys, double [] ws, int[] rows, final DHistogram rh, int lo, int hi, double[] bins, double[] sums, double[] ssqs, double[] priv) {
+    if( rh==null ) return; // Ignore untracked columns in this split
+    int rhbinslen = rh.accumLength();
+    if( rhbinslen > bins.length) { // Grow bins if needed
+      bins = new double[rhbinslen];
+      sums = new double[rhbinslen];
+      ssqs = new double[rhbinslen];
+    }
+    if( rh._valHist != null ) fillLocalValuesForNode(bins, sums, ssqs, ws, codes, zero, ys, rh, rows, hi, lo);
+    else fillLocalHistoForNode(bins, sums, ssqs, ws, codes, vals, zero, ys, rh, rows, hi, lo);
+    if( priv != null ) bumpPrivateHisto(bins,sums,ssqs,priv);
+    else if( rh._valHist != null ) bumpSharedValues(bins,sums,ssqs,rh);
+    else bumpSharedHisto(bins,sums,ssqs,rh);
+  }
+
+  private static void overAllRows(double [] cs, double [] ys, double [] ws, int[] rows, final DHistogram rh, int lo, int hi, double[] bins, double[] sums, double[] ssqs, double[] priv) {
     if( rh==null ) return; // Ignore untracked columns in this split
     int rhbinslen = rh._bins.length;
     if( rhbinslen > bins.length) { // Grow bins if needed
@@ -252,7 +513,8 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
       ssqs = new double[rhbinslen];
     }
     fillLocalHistoForNode(bins, sums, ssqs, ws, cs, ys, rh, rows, hi, lo);
-    bumpSharedHisto(bins,sums,ssqs,rh);
+    if( priv != null ) bumpPrivateHisto(bins,sums,ssqs,priv);
+    else bumpSharedHisto(bins,sums,ssqs,rh);
   }
 
   static void bumpSharedHisto(double[]bins,double[]sums,double[]ssqs,DHistogram rh) {
@@ -265,6 +527,34 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
     }
   }
 
+  // Same, per value
+  static void bumpSharedValues(double[]bins,double[]sums,double[]ssqs,DHistogram rh) {
+    final double[] vh = rh._valHist;
+    final int len = vh.length/3;
+    for( int b=0; b<len; b++ ) {
+      if( bins[b] != 0 ) { AtomicUtils.DoubleArray.add(vh,b,bins[b]); bins[b]=0; }
+    }
+    for( int b=0; b<len; b++ ) {
+      if( sums[b] != 0 || ssqs[b] != 0 ) {
+        AtomicUtils.DoubleArray.add(vh,len+b,(float)sums[b]);
+        AtomicUtils.DoubleArray.add(vh,2*len+b,(float)ssqs[b]);
+        sums[b]=ssqs[b]=0;
+      }
+    }
+  }
+
+  // Same, into this thread's private copy: no atomics.  Sums are float-cast
+  // just as the shared ones are.
+  static void bumpPrivateHisto(double[]bins,double[]sums,double[]ssqs,double[]priv) {
+    final int len = priv.length/3;
+    for( int b=0; b<len; b++ ) {
+      if( bins[b] != 0 ) { priv[b] += bins[b]; bins[b]=0; }
+    }
+    for( int b=0; b<len; b++ ) {
+      if( sums[b] != 0 || ssqs[b] != 0 ) { priv[len+b] += (float)sums[b]; priv[2*len+b] += (float)ssqs[b]; sums[b]=ssqs[b]=0; }
+    }
+  }
+
   private static void fillLocalHistoForNode(double[] bins, double[] sums, double[] ssqs, double[] ws, double[] cs, double[] ys, DHistogram rh, int [] rows, int hi, int lo) {
     double minmax[] = new double[]{rh._min2,rh._maxIn};
     // Gather all the data for this set of rows, for 1 column and 1 split/NID
@@ -288,4 +578,54 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
     rh.setMax(minmax[1]);
   }
 
+  // Same, for a pre-binned column: codes are ranks into vals, less zero
+  private static void fillLocalHistoForNode(double[] bins, double[] sums, double[] ssqs, double[] ws, int[] codes, double[] vals, int zero, double[] ys, DHistogram rh, int [] rows, int hi, int lo) {
+    final char[] cbs = rh._codeBins;
+    final int clo = rh._codeLo, clen = cbs == null ? 0 : cbs.length;
+    final int nab = rh._bins.length-1; // NAs go right
+    int rmin = Integer.MAX_VALUE, rmax = -1; // Ranks of the min/max values seen
+    for(int r = lo; r< hi; ++r) {
+      int k = rows[r];
+      double w = ws[k];
+      if (w == 0) continue;
+      int code = codes[k];
+      int b;
+      if( code == BinnedColumns.NA ) b = nab;
+      else {
+        int rank = code+zero;
+        if( rank < rmin ) rmin = rank;
+        if( rank > rmax ) rmax = rank;
+        int i = rank-clo;
+        b = i >= 0 && i < clen ? cbs[i] : rh.bin(vals[rank]); // Table lookup, no float math
+      }
+      double resp = ys[k];
+      double wy = w*resp;
+      bins[b] += w;                // Bump count in bin
+      sums[b] += wy;
+      ssqs[b] += wy*resp;
+    }
+    if( rmax >= 0 ) {           // Exact min/max, from the value table
+      rh.setMin(vals[rmin]);
+      rh.setMax(vals[rmax]);
+    }
+  }
+
+  // Same, per value: slots are ranks from rh._codeLo, then NAs
+  private static void fillLocalValuesForNode(double[] bins, double[] sums, double[] ssqs, double[] ws, int[] codes, int zero, double[] ys, DHistogram rh, int [] rows, int hi, int lo) {
+    final int off = zero - rh._codeLo;
+    final int nas = rh.accumLength()-1;
+    for(int r = lo; r< hi; ++r) {
+      int k = rows[r];
+      double w = ws[k];
+      if (w == 0) continue;
+      int code = codes[k];
+      int b = code == BinnedColumns.NA ? nas : code+off;
+      double resp = ys[k];
+      double wy = w*resp;
+      bins[b] += w;
+      sums[b] += wy;
+      ssqs[b] += wy*resp;
+    }
+  }
+
 }
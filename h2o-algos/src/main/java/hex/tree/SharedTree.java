@@ -52,6 +52,9 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
 
   protected Random _rand;
 
+  // Predictors pre-binned into compact codes, scanned by every tree level
+  private transient Broadcast<BinnedColumns> _binned;
+
   public boolean isSupervised(){return true;}
 
   public boolean scoreZeroTrees(){return true;}
@@ -280,17 +283,25 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
         // Tag out rows missing the response column
         new ExcludeNAResponse().doAll(_train);
 
+        // Encode low-cardinality predictors once, for histogram building
+        _binned = BinnedColumns.make(_train, _ncols);
+
         // Variable importance: squared-error-improvement-per-variable-per-split
         _improvPerVar = new float[_ncols];
         _rand = RandomUtils.getRNG(_parms._seed);
 
         initializeModelSpecifics();
+        if( H2O.ARGS.pin_frames ) _train.pin(_job._key);  // Every tree level rescans the frame
         resumeFromCheckpoint();
         scoreAndBuildTrees(doOOBScoring());
 
       } finally {
         if( _model!=null ) _model.unlock(_job);
+        if( H2O.ARGS.pin_frames && _train != null ) _train.unpin(_job._key);
         for (Key k : getGlobalQuantilesKeys()) if (k!=null) k.remove();
+        BinnedColumns.remove(_binned);
+        _binned = null;
+        if( _train != null ) ScoreBuildHistogram.dropLiveRows(_train.vecs());
       }
     }
 
@@ -353,6 +364,7 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
         }
         Timer kb_timer = new Timer();
         buildNextKTrees();
+        ScoreBuildHistogram.dropLiveRows(nidsVecs()); // Next trees start from all rows
         Log.info((tid + 1) + ". tree was built in " + kb_timer.toString());
         _job.update(1);
         if (_model._output._treeStats._max_depth==0) {
@@ -379,21 +391,11 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
     //           O( #active_splits * #bins * #ncols )
     // but is NOT over all the data.
     ScoreBuildOneTree sb1ts[] = new ScoreBuildOneTree[_nclass];
-    Vec vecs[] = fr.vecs();
     for( int k=0; k<_nclass; k++ ) {
       final DTree tree = ktrees[k]; // Tree for class K
       if( tree == null ) continue;
-      // Build a frame with just a single tree (& work & nid) columns, so the
-      // nested MRTask ScoreBuildHistogram in ScoreBuildOneTree does not try
-      // to close other tree's Vecs when run in parallel.
-      Frame fr2 = new Frame(Arrays.copyOf(fr._names,_ncols+1), Arrays.copyOf(vecs,_ncols+1)); //predictors and actual response
-      fr2.add(fr._names[idx_tree(k)],vecs[idx_tree(k)]); //tree predictions
-      fr2.add(fr._names[idx_work(k)],vecs[idx_work(k)]); //target value to fit (copy of actual response for DRF, residual for GBM)
-      fr2.add(fr._names[idx_nids(k)],vecs[idx_nids(k)]); //node indices
-      if (idx_weight() >= 0)
-        fr2.add(fr._names[idx_weight()],vecs[idx_weight()]); //observation weights
       // Start building one of the K trees in parallel
-      H2O.submitTask(sb1ts[k] = new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution));
+      H2O.submitTask(sb1ts[k] = scoreBuildOneTree(fr, k, nbins, nbins_cats, tree, leafs, hcs, build_tree_one_node, false));
     }
     // Block for all K trees to complete.
     boolean did_split=false;
@@ -407,6 +409,92 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
     return did_split ? hcs : null;
   }
 
+  private ScoreBuildOneTree scoreBuildOneTree(Frame fr, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], boolean build_tree_one_node, boolean bestFirst) {
+    Vec vecs[] = fr.vecs();
+    // Build a frame with just a single tree (& work & nid) columns, so the
+    // nested MRTask ScoreBuildHistogram in ScoreBuildOneTree does not try
+    // to close other tree's Vecs when run in parallel.
+    Frame fr2 = new Frame(Arrays.copyOf(fr._names,_ncols+1), Arrays.copyOf(vecs,_ncols+1)); //predictors and actual response
+    fr2.add(fr._names[idx_tree(k)],vecs[idx_tree(k)]); //tree predictions
+    fr2.add(fr._names[idx_work(k)],vecs[idx_work(k)]); //target value to fit (copy of actual response for DRF, residual for GBM)
+    fr2.add(fr._names[idx_nids(k)],vecs[idx_nids(k)]); //node indices
+    if (idx_weight() >= 0)
+      fr2.add(fr._names[idx_weight()],vecs[idx_weight()]); //observation weights
+    int codeIdx = -1;
+    if (_binned != null) { //pre-binned predictor codes, last
+      codeIdx = fr2.numCols();
+      Vec[] codes = _binned.get()._codes;
+      for (int i = 0; i < codes.length; i++) fr2.add("Codes_"+i, codes[i]);
+    }
+    return new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution, _binned, codeIdx, bestFirst);
+  }
+
+  // --------------------------------------------------------------------------
+  // Grow all K trees by one leaf, best-first.  Histogram the leaves made last
+  // (at first, the root), then split the leaf with the largest squared error
+  // improvement, up to maxLeaves leaves and maxDepth deep.  Only the new
+  // children get histogrammed on the next call; rows in other leaves stay put.
+  // Returns false once no tree grew.
+  protected boolean buildBestLeaf(final Frame fr, final int nbins, int nbins_cats, final DTree ktrees[], final int leafs[], final DHistogram hcs[][][], boolean build_tree_one_node, int maxLeaves, int maxDepth) {
+    ScoreBuildOneTree sb1ts[] = new ScoreBuildOneTree[_nclass];
+    for( int k=0; k<_nclass; k++ )
+      if( ktrees[k] != null && hcs[k] != null )
+        H2O.submitTask(sb1ts[k] = scoreBuildOneTree(fr, k, nbins, nbins_cats, ktrees[k], leafs, hcs, build_tree_one_node, true));
+    boolean grew = false;
+    for( int k=0; k<_nclass; k++ ) {
+      final DTree tree = ktrees[k];
+      if( tree == null || hcs[k] == null ) continue;
+      sb1ts[k].join();
+      hcs[k] = null;
+      int nleaves = 1;          // Each split adds a leaf
+      for( int nid=0; nid<tree.len(); nid++ )
+        if( tree.node(nid) instanceof DTree.DecidedNode ) nleaves++;
+      while( nleaves < maxLeaves ) {
+        DTree.UndecidedNode best = null;
+        for( int nid=0; nid<tree.len(); nid++ ) {
+          if( !(tree.node(nid) instanceof DTree.UndecidedNode) ) continue;
+          DTree.UndecidedNode udn = tree.undecided(nid);
+          if( udn._best == null || udn._best._col == -1 || depth(tree,nid) >= maxDepth ) continue;
+          if( best == null || improvement(udn._best) > improvement(best._best) ) best = udn;
+        }
+        if( best == null ) break;
+        int tmax = tree.len();
+        tree._depth = depth(tree, best.nid()); // Children sample columns for this depth
+        DTree.DecidedNode dn = makeDecided(best, best._hs);
+        DTree.Split s = dn._split; // Accumulate squared error improvements per variable
+        AtomicUtils.FloatArray.add(_improvPerVar,s.col(),(float)(s.pre_split_se()-s.se()));
+        nleaves++;
+        // Histogram the children next, unless neither could ever be split:
+        // the tree is full, or they sit at max_depth.  Their rows then stay
+        // in the new split, and GBM's leaf pass routes them.
+        boolean splittable = nleaves < maxLeaves && depth(tree, best.nid())+1 < maxDepth;
+        if( tree.len() > tmax && splittable ) {
+          leafs[k] = tmax;
+          hcs[k] = new DHistogram[tree.len()-tmax][];
+          for( int nl = tmax; nl<tree.len(); nl++ )
+            hcs[k][nl-tmax] = tree.undecided(nl)._hs;
+          grew = true;
+          break;
+        }
+      }
+      if( hcs[k] != null ) continue;
+      if( tree.root() instanceof DTree.UndecidedNode ) // Root cannot split: decide it as such
+        makeDecided(tree.undecided(0), tree.undecided(0)._hs);
+      tree._depth = 0;          // Done: levels of splits, as level-wise growth counts them
+      for( int nid=0; nid<tree.len(); nid++ )
+        if( tree.node(nid) instanceof DTree.DecidedNode && tree.decided(nid)._split._col != -1 )
+          tree._depth = Math.max(tree._depth, depth(tree,nid)+1);
+    }
+    return grew;
+  }
+
+  private static double improvement( DTree.Split s ) { return s.pre_split_se()-s.se(); }
+  private static int depth( DTree tree, int nid ) {
+    int d = 0;
+    while( (nid = tree.node(nid).pid()) != -1 ) d++;
+    return d;
+  }
+
   private static class ScoreBuildOneTree extends H2OCountedCompleter {
     final SharedTree _st;
     final int _k;               // The tree
@@ -419,9 +507,12 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
     final boolean _build_tree_one_node;
     float[] _improvPerVar;      // Squared Error improvement per variable per split
     Distribution.Family _family;
+    final Broadcast<BinnedColumns> _binned;
+    final int _codeIdx;         // First pre-binned code column in _fr2, or -1
+    final boolean _bestFirst;   // Only find the new leaves' best splits; the caller picks one
 
     boolean _did_split;
-    ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, Distribution.Family family) {
+    ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, Distribution.Family family, Broadcast<BinnedColumns> binned, int codeIdx, boolean bestFirst) {
       _st   = st;
       _k    = k;
       _nbins= nbins;
@@ -433,6 +524,9 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       _build_tree_one_node = build_tree_one_node;
       _improvPerVar = improvPerVar;
       _family = family;
+      _binned = binned;
+      _codeIdx = codeIdx;
+      _bestFirst = bestFirst;
     }
     @Override public void compute2() {
       // Fuse 2 conceptual passes into one:
@@ -443,14 +537,30 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       // Pass 2: Build new summary DHistograms on the new child Nodes every row
       // got assigned into.  Collect counts, mean, variance, min, max per bin,
       // per column.
-      new ScoreBuildHistogram(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafs[_k], _hcs[_k], _family).dfork(null,_fr2,_build_tree_one_node);
+      long cells = ScoreBuildHistogram.MAX_VALUE_CELLS;
+      if( _bestFirst )          // Waiting leaves keep their per-value histograms
+        for( int nid=0; nid<_leafs[_k]; nid++ )
+          if( _tree.node(nid) instanceof DTree.UndecidedNode )
+            cells -= ScoreBuildHistogram.valueCells(_tree.undecided(nid)._hs);
+      ScoreBuildHistogram.planSubtraction(_tree, _leafs[_k], _hcs[_k], _binned == null ? null : _binned.get(), cells,
+                                          _build_tree_one_node ? 1 : H2O.CLOUD.size());
+      new ScoreBuildHistogram(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafs[_k], _hcs[_k], _family, _binned, _codeIdx).dfork(null,_fr2,_build_tree_one_node);
     }
     @Override public void onCompletion(CountedCompleter caller) {
       ScoreBuildHistogram sbh = (ScoreBuildHistogram)caller;
       //System.out.println(sbh.profString());
 
       final int leafk = _leafs[_k];
+      ScoreBuildHistogram.finishSubtraction(_tree, leafk, sbh._hcs, _binned == null ? null : _binned.get());
       int tmax = _tree.len();   // Number of total splits in tree K
+      if( _bestFirst ) {        // Keep the histograms for when a leaf gets split
+        for( int leaf=leafk; leaf<tmax; leaf++ ) {
+          DTree.UndecidedNode udn = _tree.undecided(leaf);
+          udn._hs = sbh._hcs[leaf-leafk];
+          udn._best = DTree.bestCol(udn, udn._hs);
+        }
+        return;
+      }
       for( int leaf=leafk; leaf<tmax; leaf++ ) { // Visit all the new splits (leaves)
         DTree.UndecidedNode udn = _tree.undecided(leaf);
 //        System.out.println((_st._nclass==1?"Regression":("Class "+_fr2.vecs()[_st._ncols].domain()[_k]))+",\n  Undecided node:"+udn);
@@ -498,6 +608,11 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
   protected final Vec vec_nids( Frame fr, int c) { return fr.vecs()[idx_nids(c)]; }
   protected final Vec vec_resp( Frame fr       ) { return fr.vecs()[idx_resp() ]; }
   protected final Vec vec_tree( Frame fr, int c) { return fr.vecs()[idx_tree(c)]; }
+  private Vec[] nidsVecs() {
+    Vec[] vs = new Vec[_nclass];
+    for( int k=0; k<_nclass; k++ ) vs[k] = vec_nids(_train, k);
+    return vs;
+  }
 
   protected double[] data_row( Chunk chks[], int row, double[] data) {
     assert data.length == _ncols;
@@ -136,6 +136,8 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       error("_col_sample_rate", "col_sample_rate must be between 0 and 1");
     if (_parms._max_abs_leafnode_pred <= 0)
       error("_max_abs_leafnode_pred", "max_abs_leafnode_pred must be larger than 0.");
+    if (_parms._max_leaves < 0 || _parms._max_leaves == 1)
+      error("_max_leaves", "max_leaves must be 0 (grow level by level) or larger than 1.");
   }
 
   // ----------------------
@@ -476,13 +478,19 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
 
       // ----
       // ESL2, page 387.  Step 2b ii.
-      // One Big Loop till the ktrees are of proper depth.
-      // Adds a layer to the trees each pass.
-      int depth = 0;
-      for (; depth < _parms._max_depth; depth++) {
-        hcs = buildLayer(_train, _parms._nbins, _parms._nbins_cats, ktrees, leafs, hcs, _parms._build_tree_one_node);
-        // If we did not make any new splits, then the tree is split-to-death
-        if (hcs == null) break;
+      if (_parms._max_leaves > 0) {
+        // Best-first: split the most improving leaf till the ktrees have
+        // max_leaves leaves.  Adds a leaf to the trees each pass.
+        while (buildBestLeaf(_train, _parms._nbins, _parms._nbins_cats, ktrees, leafs, hcs, _parms._build_tree_one_node, _parms._max_leaves, _parms._max_depth)) ;
+      } else {
+        // One Big Loop till the ktrees are of proper depth.
+        // Adds a layer to the trees each pass.
+        int depth = 0;
+        for (; depth < _parms._max_depth; depth++) {
+          hcs = buildLayer(_train, _parms._nbins, _parms._nbins_cats, ktrees, leafs, hcs, _parms._build_tree_one_node);
+          // If we did not make any new splits, then the tree is split-to-death
+          if (hcs == null) break;
+        }
       }
 
       // Each tree bottomed-out in a DecidedNode; go 1 more level and insert
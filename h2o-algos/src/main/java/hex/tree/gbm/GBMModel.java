@@ -12,6 +12,7 @@ public class GBMModel extends SharedTreeModel<GBMModel,GBMModel.GBMParameters,GB
     public double _learn_rate_annealing;
     public double _col_sample_rate;
     public double _max_abs_leafnode_pred;
+    public int _max_leaves;     // Grow trees best-first up to this many leaves; 0 to grow level by level
 
     public GBMParameters() {
       super();
@@ -22,6 +23,7 @@ public class GBMModel extends SharedTreeModel<GBMModel,GBMModel.GBMParameters,GB
       _ntrees = 50;
       _max_depth = 5;
       _max_abs_leafnode_pred = Double.MAX_VALUE;
+      _max_leaves = 0;
     }
 
     public String algoName() { return "GBM"; }
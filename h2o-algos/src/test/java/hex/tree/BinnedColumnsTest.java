@@ -0,0 +1,70 @@
+package hex.tree;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Broadcast;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+public class BinnedColumnsTest extends TestUtil {
+  @BeforeClass
+  public static void stall() { stall_till_cloudsize(1); }
+
+  @Test
+  public void testCodesRoundTrip() {
+    double[] raw = new double[]{0, 2.5, -1, Double.NaN, 2.5, 0, 7, -1};
+    Vec v0 = Vec.makeVec(raw, Vec.newKey());
+    Vec v1 = Vec.makeVec(new double[]{3, 3, 3, 3, 3, 3, 3, 3}, v0.group().addVec()); // constant: not encoded
+    Vec v2 = Vec.makeVec(new double[]{1, 0, 1, 0, 1, 0, 1, 0}, v0.group().addVec()); // "response"
+    Frame fr = new Frame(new String[]{"x", "c", "y"}, new Vec[]{v0, v1, v2});
+    Broadcast<BinnedColumns> b = null;
+    try {
+      b = BinnedColumns.make(fr, 2);
+      Assert.assertNotNull(b);
+      BinnedColumns bc = b.get();
+      Assert.assertArrayEquals(new int[]{0, -1}, bc._slot);
+      Assert.assertArrayEquals(new double[]{-1, 0, 2.5, 7}, bc._vals[0], 0);
+      Assert.assertNull(bc._vals[1]);
+      Assert.assertEquals(1, bc._zero[0]);
+      Vec codes = bc._codes[0];
+      for( int i = 0; i < raw.length; i++ ) {
+        if( Double.isNaN(raw[i]) ) { Assert.assertTrue(codes.isNA(i)); continue; }
+        Assert.assertEquals(raw[i], bc._vals[0][(int)codes.at8(i) + bc._zero[0]], 0);
+      }
+      Assert.assertEquals(0, codes.at8(0)); // The value 0 gets code 0
+    } finally {
+      BinnedColumns.remove(b);
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testHighCardinalityDropped() {
+    int n = 200000;
+    double[] many = new double[n], few = new double[n], ints = new double[n], y = new double[n];
+    for( int i = 0; i < n; i++ ) {
+      many[i] = i*0.5;          // Real, all distinct: sketched, dropped
+      few[i] = (i%1000)*0.25;   // Real, 1000 distinct: sketched, kept
+      ints[i] = i%70000;        // Integer, too wide a range: sketched, dropped
+      y[i] = i&1;
+    }
+    Vec v0 = Vec.makeVec(many, Vec.newKey());
+    Vec v1 = Vec.makeVec(few, v0.group().addVec());
+    Vec v2 = Vec.makeVec(ints, v0.group().addVec());
+    Vec v3 = Vec.makeVec(y, v0.group().addVec());
+    Frame fr = new Frame(new String[]{"many", "few", "ints", "y"}, new Vec[]{v0, v1, v2, v3});
+    Broadcast<BinnedColumns> b = null;
+    try {
+      b = BinnedColumns.make(fr, 3);
+      Assert.assertNotNull(b);
+      BinnedColumns bc = b.get();
+      Assert.assertArrayEquals(new int[]{-1, 0, -1}, bc._slot);
+      Assert.assertEquals(1000, bc._vals[1].length);
+    } finally {
+      BinnedColumns.remove(b);
+      fr.delete();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package hex.tree;
+
+import hex.CreateFrame;
+import hex.Distribution;
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.H2O;
+import water.TestUtil;
+import water.fvec.Frame;
+
+/**
+ * Shared (atomically updated) vs per-thread private histogram accumulation
+ * in ScoreBuildHistogram train the same models.  Timings are in the h2o-jmh
+ * HistogramAccumBench.
+ */
+public class HistogramAccumulationTest extends TestUtil {
+  @BeforeClass
+  public static void stall() { stall_till_cloudsize(1); }
+
+  private static Frame data(long rows, int cols) {
+    CreateFrame cf = new CreateFrame();
+    cf.rows = rows;
+    cf.cols = cols;
+    cf.categorical_fraction = 0.1;
+    cf.integer_fraction = 0.3;
+    cf.binary_fraction = 0.1;
+    cf.missing_fraction = 0.01;
+    cf.factors = 20;
+    cf.response_factors = 1;
+    cf.has_response = true;
+    cf.seed = 1234;
+    return cf.execImpl().get();
+  }
+
+  // Train a GBM with the given accumulation mode, return its training MSE
+  private static double train(Frame fr, String mode, int ntrees, int depth) {
+    String old = H2O.ARGS.histo_accum;
+    H2O.ARGS.histo_accum = mode;
+    GBMModel gbm = null;
+    try {
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "response";
+      parms._ntrees = ntrees;
+      parms._max_depth = depth;
+      parms._distribution = Distribution.Family.gaussian;
+      parms._seed = 42;
+      gbm = new GBM(parms).trainModel().get();
+      return gbm._output._training_metrics.mse();
+    } finally {
+      H2O.ARGS.histo_accum = old;
+      if( gbm != null ) gbm.delete();
+    }
+  }
+
+  @Test
+  public void testSameModel() {
+    Frame fr = data(20000, 10);
+    try {
+      double shared = train(fr, "shared", 5, 5);
+      double priv = train(fr, "private", 5, 5);
+      Assert.assertEquals(shared, priv, 1e-6*shared);
+    } finally {
+      fr.delete();
+    }
+  }
+}
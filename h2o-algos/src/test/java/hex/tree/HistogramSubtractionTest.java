@@ -0,0 +1,54 @@
+package hex.tree;
+
+import org.junit.Assert;
+import org.junit.Test;
+import water.TestUtil;
+
+import java.util.Random;
+
+/**
+ * A histogram got as parent less sibling, per value, and folded into bins
+ * must match one built directly from the rows.
+ */
+public class HistogramSubtractionTest extends TestUtil {
+  private static final double[] VALS = {0, 0.5, 1, 2, 3.25, 4, 5, 6, 7.5, 9};
+
+  private static DHistogram hist() {
+    DHistogram h = new DHistogram("x", 4, 4, (byte)0, 0, 10, 0, SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 0, null);
+    h.init();
+    return h;
+  }
+
+  // Add a row to a per-value histogram, as ScoreBuildHistogram does
+  private static void add(DHistogram h, double x, double y, double w) {
+    int len = h.accumLength();
+    int i = Double.isNaN(x) ? len-1 : java.util.Arrays.binarySearch(VALS, x) - h._codeLo;
+    h._valHist[i] += w;
+    h._valHist[len+i] += (float)(w*y);
+    h._valHist[2*len+i] += (float)(w*y*y);
+  }
+
+  @Test
+  public void testSubtractMatchesDirect() {
+    Random rng = new Random(0xC0FFEE);
+    DHistogram p = hist(), s = hist(), direct = hist(), b = hist();
+    p.initValues(VALS);
+    s.initValues(VALS);
+    for( int r = 0; r < 1000; r++ ) {
+      double x = rng.nextInt(20) == 0 ? Double.NaN : VALS[rng.nextInt(VALS.length-2)+1]; // 0 and 9 unused
+      double y = rng.nextGaussian();
+      add(p, x, y, 1);
+      if( rng.nextInt(3) == 0 ) add(s, x, y, 1);   // Smaller child
+      else direct.incr(x, y, 1);                   // Larger child, built directly
+    }
+    b.subtract(p, s, VALS);
+    b.foldValues(VALS);
+    for( int i = 0; i < direct.nbins(); i++ ) {
+      Assert.assertEquals(direct.bins(i), b.bins(i), 0);
+      Assert.assertEquals(direct.mean(i), b.mean(i), 1e-5);
+      Assert.assertEquals(direct.var(i), b.var(i), 1e-4);
+    }
+    Assert.assertEquals(direct.find_min(), b.find_min(), 0);
+    Assert.assertEquals(direct.find_maxIn(), b.find_maxIn(), 0);
+  }
+}
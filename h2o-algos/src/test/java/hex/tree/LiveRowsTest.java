@@ -0,0 +1,64 @@
+package hex.tree;
+
+import hex.Distribution;
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.H2O;
+import water.TestUtil;
+import water.fvec.Frame;
+
+/**
+ * Per-chunk live-row lists in ScoreBuildHistogram: deep, sampled trees
+ * come out identical to rescoring every row, and the lists are gone once
+ * the model is built.
+ */
+public class LiveRowsTest extends TestUtil {
+  @BeforeClass
+  public static void stall() { stall_till_cloudsize(1); }
+
+  private static GBMModel train( Frame fr, boolean liveRows ) {
+    boolean old = H2O.ARGS.disable_live_rows;
+    H2O.ARGS.disable_live_rows = !liveRows;
+    try {
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "CAPSULE";
+      parms._ignored_columns = new String[]{"ID"};
+      parms._ntrees = 5;
+      parms._max_depth = 12;
+      parms._min_rows = 1;
+      parms._sample_rate = 0.7;
+      parms._distribution = Distribution.Family.gaussian;
+      parms._seed = 42;
+      return new GBM(parms).trainModel().get();
+    } finally {
+      H2O.ARGS.disable_live_rows = old;
+    }
+  }
+
+  @Test
+  public void testDeepSampledTrees() {
+    Frame fr = parse_test_file("smalldata/logreg/prostate.csv");
+    GBMModel live = null, all = null;
+    Frame plive = null, pall = null;
+    try {
+      live = train(fr, true);
+      Assert.assertTrue(ScoreBuildHistogram.LIVE.isEmpty());
+      all = train(fr, false);
+      Assert.assertTrue(live._output._training_metrics.mse() < 0.25);
+      Assert.assertEquals(all._output._training_metrics.mse(), live._output._training_metrics.mse(), 0);
+      plive = live.score(fr);
+      pall = all.score(fr);
+      Assert.assertTrue(isBitIdentical(pall, plive));
+    } finally {
+      if( live != null ) live.delete();
+      if( all != null ) all.delete();
+      if( plive != null ) plive.delete();
+      if( pall != null ) pall.delete();
+      fr.delete();
+    }
+  }
+}
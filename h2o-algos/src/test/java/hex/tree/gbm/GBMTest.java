@@ -1952,4 +1952,57 @@ public class GBMTest extends TestUtil {
     }
   }
 
+  private static GBMModel covtypeElevation( Frame tfr, int maxDepth, int maxLeaves ) {
+    GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+    parms._train = tfr._key;
+    parms._response_column = tfr.names()[0];
+    parms._ntrees = 5;
+    parms._max_depth = maxDepth;
+    parms._max_leaves = maxLeaves;
+    parms._seed = 0xDECAF;
+    return new GBM(parms).trainModel().get();
+  }
+
+  @Test public void maxLeaves() {
+    Frame tfr = null;
+    GBMModel bf = null, lw = null;
+    try {
+      tfr = parse_test_file("smalldata/covtype/covtype.20k.data");
+      // Best-first trees grow to exactly max_leaves, however deep they may go
+      bf = covtypeElevation(tfr, 20, 8);
+      assertEquals(8, bf._output._treeStats._min_leaves);
+      assertEquals(8, bf._output._treeStats._max_leaves);
+      // Level-wise trees of depth 3 have as many leaves...
+      lw = covtypeElevation(tfr, 3, 0);
+      assertEquals(8, lw._output._treeStats._min_leaves);
+      assertEquals(8, lw._output._treeStats._max_leaves);
+      // ...but spend them on less improving splits
+      assertTrue(bf._output._training_metrics.mse() < lw._output._training_metrics.mse());
+    } finally {
+      if (bf!=null) bf.delete();
+      if (lw!=null) lw.delete();
+      if (tfr!=null) tfr.delete();
+    }
+  }
+
+  @Test public void maxLeavesCappedByDepth() {
+    Frame tfr = null;
+    GBMModel bf = null, lw = null;
+    try {
+      tfr = parse_test_file("smalldata/covtype/covtype.20k.data");
+      // With room for more leaves than max_depth allows, best-first splits
+      // every leaf down to max_depth: the level-wise tree
+      bf = covtypeElevation(tfr, 2, 64);
+      lw = covtypeElevation(tfr, 2, 0);
+      assertEquals(4, bf._output._treeStats._min_leaves);
+      assertEquals(4, bf._output._treeStats._max_leaves);
+      assertEquals(2, bf._output._treeStats._max_depth);
+      double mse = lw._output._training_metrics.mse();
+      assertEquals(mse, bf._output._training_metrics.mse(), 1e-6*mse);
+    } finally {
+      if (bf!=null) bf.delete();
+      if (lw!=null) lw.delete();
+      if (tfr!=null) tfr.delete();
+    }
+  }
 }
@@ -183,6 +183,7 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
     if (error_count() > 0)
       throw H2OModelBuilderIllegalArgumentException.makeFromBuilder(this);
     _start_time = System.currentTimeMillis();
+    _job._mem_estimate = estimateWorkingSet();
     if( !nFoldCV() )
       return _job.start(trainModelImpl(), _parms.progressUnits(), _parms._max_runtime_secs);
 
@@ -207,6 +208,17 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
     return _result.get();
   }
 
+  /** Estimated bytes of cluster memory this build needs beyond its input
+   *  data, used for Job admission control.  The default assumes one adapted
+   *  copy of the training frame; builders with bigger working sets (e.g. per
+   *  fold models running in parallel) should override.
+   *  @return estimate in bytes, or 0 for no estimate */
+  protected long estimateWorkingSet() {
+    if( _train == null ) return 0;
+    long sz = _train.byteSize();
+    return nFoldCV() ? sz * nModelsInParallel() : sz;
+  }
+
   /** Model-specific implementation of model training
    * @return A F/J Job, which, when executed, does the build.  F/J is NOT started.  */
   abstract protected Driver trainModelImpl();
@@ -129,6 +129,8 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
       gridWork = Long.MAX_VALUE;
     }
     it.reset();
+    // Models are built one after another, all on the same training frame
+    _job._mem_estimate = estimateWorkingSet(_hyperSpaceWalker.getParams());
 
     // Install this as job functions
     return _job.start(new H2O.H2OCountedCompleter() {
@@ -139,6 +141,22 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
     }, gridWork, it.max_runtime_secs());
   }
 
+  /**
+   * Estimated working set of building one model of the grid, for Job
+   * admission control: one adapted copy of the training frame, times the
+   * fold models the default {@link ModelBuilder} policy builds at once under
+   * cross-validation.  0 when admission control is off.
+   */
+  private static long estimateWorkingSet(Model.Parameters parms) {
+    if (!H2O.ARGS.admission_control) return 0;
+    Frame train = parms.train();
+    if (train == null) return 0;
+    long sz = train.byteSize();
+    boolean parallelFolds = parms._nfolds > 1 && parms._parallelize_cross_validation &&
+                            parms._max_runtime_secs == 0 && sz < 1e6;
+    return parallelFolds ? sz * parms._nfolds : sz;
+  }
+
   /**
    * Returns expected number of models in resulting Grid object.
    *
@@ -7,7 +7,9 @@ import java.nio.*;
 import java.nio.channels.*;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
+import water.util.LZ4;
 import water.util.Log;
 import water.util.TwoDimTable;
 
@@ -75,6 +77,14 @@ public final class AutoBuffer {
   // TRUE for read-mode.  FALSE for write-mode.  Can be flipped for rapid turnaround.
   private boolean _read;
 
+  // DeltaIced versions written as deltas to _h2o, for the RPC sending this
+  // to confirm once answered.  Null (the default) writes them as plain Iced.
+  ArrayList<DeltaIced.Shipped> _deltas;
+
+  // Broadcast handles read from another node's task, for the task to fetch
+  // the values of before it runs.  Null if none.
+  ArrayList<Broadcast> _broadcasts;
+
   // TRUE if this AutoBuffer has never advanced past the first "page" of data.
   // The UDP-flavor, port# and task fields are only valid until we read over
   // them when flipping the ByteBuffer to the next chunk of data.  Used in
@@ -97,6 +107,17 @@ public final class AutoBuffer {
   // The assumed max UDP packetsize
   static final int MTU = 1500-8/*UDP packet header size*/;
 
+  // Payload codecs for putA1Z/getA1Z
+  private static final byte WIRE_RAW = 0;
+  private static final byte WIRE_LZ4 = 1;
+
+  // Wire compression stats for this node, reported by WaterMeterIo.
+  // RAW/SENT cover payloads considered for compression, before and after.
+  public static final AtomicLong WIRE_RAW_BYTES = new AtomicLong();
+  public static final AtomicLong WIRE_SENT_BYTES = new AtomicLong();
+  public static final AtomicLong WIRE_DEFLATED = new AtomicLong(); // Payloads sent compressed
+  public static final AtomicLong WIRE_INFLATED = new AtomicLong(); // Payloads received compressed
+
   // Enable this to test random TCP fails on open or write
   static final Random RANDOM_TCP_DROP = null; //new Random();
 
@@ -469,7 +490,7 @@ public final class AutoBuffer {
     assert _firstPage && _bb.limit() >= 1+2+4; // At least something written
     assert _chan == null;
 //    assert _bb.position()==0;
-    _chan = _h2o.getTCPSocket();
+    _chan = _h2o.getTCPSocket(_msg_priority);
     raisePriority();
   }
 
@@ -606,14 +627,8 @@ public final class AutoBuffer {
           throw new AutoBufferException(new EOFException("Reading "+sz+" bytes, AB="+this));
         if( _is != null ) _bb.position(_bb.position()+res); // Advance BB for Streams manually
         _size += res;            // What we read
-      } catch( IOException e ) { // Dunno how to handle so crash-n-burn
-        // Linux/Ubuntu message for a reset-channel
-        if( e.getMessage().equals("An existing connection was forcibly closed by the remote host") )
-          throw new AutoBufferException(e);
-        // Windows message for a reset-channel
-        if( e.getMessage().equals("An established connection was aborted by the software in your host machine") )
-          throw new AutoBufferException(e);
-        throw Log.throwErr(e);
+      } catch( IOException e ) {
+        throw readFail(e);
       }
     }
     _time_io_ns += (System.nanoTime()-ns);
@@ -623,6 +638,38 @@ public final class AutoBuffer {
     return _bb;
   }
 
+  // Read len bytes straight into ary at off, skipping the ByteBuffer (which
+  // must be drained already).  Used for big arrays, so they are not copied
+  // through the buffer a page at a time.
+  private void getDirect( byte[] ary, int off, int len ) {
+    assert _read && !_bb.hasRemaining();
+    ByteBuffer bb = ByteBuffer.wrap(ary, off, len);
+    long ns = System.nanoTime();
+    while( bb.hasRemaining() ) {
+      try {
+        int res = _is == null ? _chan.read(bb) : _is.read(ary, bb.position(), bb.remaining());
+        if( res <= 0 )
+          throw new AutoBufferException(new EOFException("Reading "+len+" bytes, AB="+this));
+        if( _is != null ) bb.position(bb.position()+res);
+        _size += res;
+      } catch( IOException e ) {
+        throw readFail(e);
+      }
+    }
+    _time_io_ns += (System.nanoTime()-ns);
+    _firstPage = false;
+  }
+
+  private static RuntimeException readFail( IOException e ) { // Dunno how to handle so crash-n-burn
+    // Linux/Ubuntu message for a reset-channel
+    if( e.getMessage().equals("An existing connection was forcibly closed by the remote host") )
+      return new AutoBufferException(e);
+    // Windows message for a reset-channel
+    if( e.getMessage().equals("An established connection was aborted by the software in your host machine") )
+      return new AutoBufferException(e);
+    return Log.throwErr(e);
+  }
+
   /** Put as needed to keep from overflowing the ByteBuffer. */
   private ByteBuffer putSp( int sz ) {
     assert !_read;
@@ -668,6 +715,38 @@ public final class AutoBuffer {
     return _bb;
   }
 
+  // Ship the buffered bytes followed by ary[off,off+len) with one gathering
+  // write, instead of first copying ary through the ByteBuffer.
+  private void sendGather( byte[] ary, int off, int len ) {
+    _size += _bb.position()+len;
+    if( _chan == null )
+      TimeLine.record_send(this, true);
+
+    _bb.flip(); // Prep for writing.
+    ByteBuffer[] bbs = new ByteBuffer[]{_bb, ByteBuffer.wrap(ary, off, len)};
+    try {
+      if( _chan == null )
+        tcpOpen(); // This is a big operation.  Open a TCP socket as-needed.
+      GatheringByteChannel chan = (GatheringByteChannel)_chan;
+      long ns = System.nanoTime();
+      while( bbs[1].hasRemaining() ) {
+        chan.write(bbs);
+        if( RANDOM_TCP_DROP != null &&_chan instanceof SocketChannel && RANDOM_TCP_DROP.nextInt(100) == 0 )
+          throw new IOException("Random TCP Write Fail");
+      }
+      _time_io_ns += (System.nanoTime()-ns);
+    } catch( IOException e ) {  // Some kind of TCP fail?  See sendPartial
+      throw new AutoBufferException(e);
+    }
+    _firstPage = false;
+    _bb.clear();
+  }
+
+  // Big arrays bound for a socket or file skip the ByteBuffer
+  private boolean gatherable( int len ) {
+    return len >= BBP_BIG._size && (_chan == null ? _h2o != null : _chan instanceof GatheringByteChannel);
+  }
+
   // Called when the byte buffer doesn't have enough room
   // If buffer is array backed, and the needed room is small,
   // increase the size of the backing array,
@@ -725,6 +804,7 @@ public final class AutoBuffer {
 
   public AutoBuffer put(Freezable f) {
     if( f == null ) return putInt(TypeMap.NULL);
+    if( _deltas != null && f instanceof DeltaIced ) return DeltaIced.writeDelta(this,(DeltaIced)f);
     assert f.frozenType() > 0 : "No TypeMap for "+f.getClass().getName();
     putInt(f.frozenType());
     return f.write(this);
@@ -733,12 +813,14 @@ public final class AutoBuffer {
   public <T extends Freezable> T get() {
     int id = getInt();
     if( id == TypeMap.NULL ) return null;
+    if( id == DeltaIced.TAG ) return (T)DeltaIced.readDelta(this);
     if( _is!=null ) id = _typeMap[id];
     return (T)TypeMap.newFreezable(id).read(this);
   }
   public <T extends Freezable> T get(Class<T> tc) {
     int id = getInt();
     if( id == TypeMap.NULL ) return null;
+    if( id == DeltaIced.TAG ) return (T)DeltaIced.readDelta(this);
     if( _is!=null ) id = _typeMap[id];
     assert tc.isInstance(TypeMap.theFreezable(id)):tc.getName() + " != " + TypeMap.theFreezable(id).getClass().getName() + ", id = " + id;
     return (T)TypeMap.newFreezable(id).read(this);
@@ -1001,11 +1083,24 @@ public final class AutoBuffer {
       int more = Math.min(_bb.remaining(), len - sofar);
       _bb.get(buf, sofar, more);
       sofar += more;
-      if( sofar < len ) getSp(Math.min(_bb.capacity(), len-sofar));
+      if( sofar < len ) {
+        if( len-sofar >= BBP_BIG._size && (_chan != null || _is != null) ) { getDirect(buf, sofar, len-sofar); break; }
+        getSp(Math.min(_bb.capacity(), len-sofar));
+      }
     }
     return buf;
   }
 
+  /** Read a byte[] written by {@link #putA1Z}, decompressing as needed. */
+  public byte[] getA1Z( ) {
+    int len = getInt();
+    if( len == -1 ) return null;
+    if( get1() == WIRE_RAW ) return getA1(len);
+    byte[] z = getA1(getInt());
+    WIRE_INFLATED.incrementAndGet();
+    return LZ4.decompress(z, len);
+  }
+
   public short[] getA2( ) {
     //_arys++;
     int len = getInt(); if( len == -1 ) return null;
@@ -1221,6 +1316,7 @@ public final class AutoBuffer {
   }
   public AutoBuffer putA1( byte[] ary, int length ) { return putA1(ary,0,length); }
   public AutoBuffer putA1( byte[] ary, int sofar, int length ) {
+    if( gatherable(length - sofar) ) { sendGather(ary, sofar, length - sofar); return this; }
     if (length - sofar > _bb.remaining()) expandByteBuffer(length-sofar);
     while( sofar < length ) {
       int len = Math.min(length - sofar, _bb.remaining());
@@ -1230,6 +1326,28 @@ public final class AutoBuffer {
     }
     return this;
   }
+  /** Write a large byte[] payload, LZ4-compressed when it is headed to a
+   *  remote node over TCP, <code>-wire_compress</code> is on, and it shrinks
+   *  by at least 1/8th - so UDP-sized payloads and already-dense Chunks go as
+   *  is.  The codec travels with each payload; read back with {@link #getA1Z}. */
+  public AutoBuffer putA1Z( byte[] ary ) {
+    if( ary == null ) return putInt(-1);
+    putInt(ary.length);
+    if( H2O.ARGS.wire_compress && _h2o != null && !_read && ary.length >= MTU ) {
+      byte[] z = LZ4.compress(ary);
+      WIRE_RAW_BYTES.addAndGet(ary.length);
+      if( z.length < ary.length - (ary.length>>3) ) {
+        WIRE_DEFLATED.incrementAndGet();
+        WIRE_SENT_BYTES.addAndGet(z.length);
+        put1(WIRE_LZ4).putInt(z.length);
+        return putA1(z, z.length);
+      }
+      WIRE_SENT_BYTES.addAndGet(ary.length);
+    }
+    put1(WIRE_RAW);
+    return putA1(ary, ary.length);
+  }
+
   AutoBuffer putA2( short[] ary ) {
     //_arys++;
     if( ary == null ) return putInt(-1);
@@ -0,0 +1,214 @@
+package water;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import water.nbhm.NonBlockingHashMap;
+
+/** A large read-only input shared by many tasks, shipped to each node once
+ *  per version.
+ *  <p>
+ *  An MRTask field of this type serializes as just a Key, a version and the
+ *  node that made it (the origin).  Each node caches the values it has seen.
+ *  A node handed an MRTask fetches the values of the task's own handles it
+ *  is missing, concurrently, from the node that handed it the task - its parent in the MRTask node tree - before
+ *  passing the task on, so values flow down the same tree as the task (see
+ *  <code>-mr_fanout</code>) and the origin only ships each version to its
+ *  direct children.  Should the parent no longer hold that version, or the
+ *  handle arrive any other way, the value is fetched from the origin.
+ *  <p>
+ *  Iterative algorithms make one Broadcast and {@link #update} it between
+ *  iterations; tasks reusing an unchanged value cost nothing extra to send.
+ *  The origin keeps the value and the one before it until {@link #remove},
+ *  which drops the cached copies cloud-wide; other nodes also drop copies
+ *  left unused for {@link #EVICT_MS}, and fetch them again if needed.
+ *  Values are shared, and must not be modified by tasks. */
+public final class Broadcast<T extends Freezable> extends Iced<Broadcast<T>> {
+  /** Copies on nodes other than the origin, unused this long, are dropped */
+  static final long EVICT_MS = 10*60*1000;
+
+  private Key _key;
+  private int _version;
+  private H2ONode _origin;
+  private transient T _val;     // Resolved value, on this node
+
+  // One node's copy of a Broadcast value
+  private static final class Entry {
+    final int _version;
+    final H2ONode _src;         // Who to fetch the value from, if we lack it; null on the origin
+    final H2ONode _origin;
+    final Entry _prev;          // On the origin: the version before, for tasks made before an update
+    volatile Freezable _val;
+    volatile long _used;        // Last use, for eviction
+    private RPC<Fetch> _rpc;    // In-progress fetch; guarded by this
+    private boolean _rpcOrigin; // _rpc goes to the origin; guarded by this
+    Entry( int version, H2ONode src, H2ONode origin, Freezable val, Entry prev ) {
+      _version = version; _src = src; _origin = origin; _val = val; _prev = prev;
+      _used = System.currentTimeMillis();
+    }
+
+    // Start fetching, unless the value is here or already on its way
+    synchronized void start( Key key ) {
+      if( _val == null && _rpc == null ) {
+        _rpc = new RPC<>(_src, new Fetch(key, _version)).call();
+        _rpcOrigin = _src == _origin;
+      }
+    }
+
+    // The value, waiting on the one fetch shared by all callers.  Should the
+    // sender no longer hold this version, the caller seeing that first
+    // starts one fetch from the origin for all of them.
+    Freezable fetch( Key key ) {
+      _used = System.currentTimeMillis();
+      while( true ) {
+        Freezable v = _val;
+        if( v != null ) return v;
+        RPC<Fetch> rpc;
+        boolean origin;
+        synchronized(this) {
+          if( _val != null ) return _val;
+          start(key);
+          rpc = _rpc;
+          origin = _rpcOrigin;
+        }
+        Fetch f = rpc.get();
+        synchronized(this) {
+          if( _val != null ) return _val;
+          if( f != null && f._val != null ) { _rpc = null; return _val = f._val; }
+          if( origin ) {
+            _rpc = null;        // Let a later caller try again
+            throw new IllegalStateException("Broadcast "+key+" version "+_version+" could not be fetched from "+_origin);
+          }
+          if( _rpc == rpc ) {   // First to see the miss: fall back, once for all
+            _rpc = new RPC<>(_origin, new Fetch(key, _version)).call();
+            _rpcOrigin = true;
+          }
+        }
+      }
+    }
+
+    // The value for a version, from this node's entry or its predecessor
+    Freezable at( int version ) {
+      for( Entry e = this; e != null; e = e._prev )
+        if( e._version == version ) { e._used = System.currentTimeMillis(); return e._val; }
+      return null;
+    }
+  }
+
+  private static final NonBlockingHashMap<Key,Entry> CACHE = new NonBlockingHashMap<>();
+
+  public Broadcast( T val ) { _key = Key.make(); _origin = H2O.SELF; put(val, null); }
+
+  /** Replace the value with a new version; tasks made from now on see it.
+   *  Only the origin may update. */
+  public Broadcast<T> update( T val ) {
+    if( _origin != H2O.SELF ) throw new IllegalStateException("Broadcast "+_key+" can only be updated on "+_origin);
+    Entry e = CACHE.get(_key);
+    _version++;
+    put(val, e == null ? null : new Entry(e._version, null, _origin, e._val, null));
+    return this;
+  }
+
+  private void put( T val, Entry prev ) {
+    CACHE.put(_key, new Entry(_version, null, _origin, val, prev));
+    _val = val;
+  }
+
+  /** The value, fetched from the sender of this handle, or its origin, if
+   *  not yet here. */
+  public T get() {
+    T v = _val;
+    if( v != null ) return v;
+    Entry e = CACHE.get(_key);
+    if( e != null && e._version == _version && e._src != null ) return _val = (T)e.fetch(_key);
+    v = e == null ? null : (T)e.at(_version);
+    if( v == null && _origin != H2O.SELF ) v = (T)fetchFromOrigin(_key, _version, _origin);
+    if( v == null )
+      throw new IllegalStateException("Broadcast "+_key+" version "+_version+" is no longer available; removed on "+_origin+"?");
+    return _val = v;
+  }
+
+  private static Freezable fetchFromOrigin( Key key, int version, H2ONode origin ) {
+    Fetch f = new RPC<>(origin, new Fetch(key, version)).call().get();
+    if( f == null || f._val == null )
+      throw new IllegalStateException("Broadcast "+key+" version "+version+" could not be fetched from "+origin);
+    return f._val;
+  }
+
+  /** Drop the cached copies on all nodes. */
+  public void remove() { new Drop(_key).doAllNodes(); }
+
+  /** Fetch the values of the given handles, read from an incoming task, that
+   *  this node does not have yet - all at once - so that nodes the task is
+   *  passed on to can fetch them from us. */
+  static void fetchAll( ArrayList<Broadcast> handles ) {
+    if( handles == null ) return;
+    ArrayList<Entry> es = new ArrayList<>();
+    ArrayList<Key> ks = new ArrayList<>();
+    for( Broadcast b : handles ) {
+      Entry e = CACHE.get(b._key);
+      if( e != null && e._version == b._version && e._src != null && e._val == null && !es.contains(e) ) {
+        e.start(b._key);
+        es.add(e);
+        ks.add(b._key);
+      }
+    }
+    for( int i=0; i<es.size(); i++ ) es.get(i).fetch(ks.get(i));
+  }
+
+  /** Drop copies held for other nodes' Broadcasts, unused for idleMs. */
+  static void evictIdle( long idleMs ) {
+    long cutoff = System.currentTimeMillis() - idleMs;
+    for( Map.Entry<Key,Entry> kv : CACHE.entrySet() ) {
+      Entry e = kv.getValue();
+      if( e._src != null && e._used <= cutoff ) CACHE.remove(kv.getKey(), e);
+    }
+  }
+
+  // Custom serializer: only the handle goes over the wire
+  public final AutoBuffer write_impl( AutoBuffer ab ) { return ab.put(_key).putInt(_version).put(_origin); }
+  public final Broadcast<T> read_impl( AutoBuffer ab ) {
+    _key = ab.get(Key.class);
+    _version = ab.getInt();
+    _origin = ab.get(H2ONode.class);
+    if( _origin == H2O.SELF ) return this; // Ours: the origin entry is already here
+    // Remember where to fetch from: the sender, or for handles read from
+    // local bytes, the origin
+    H2ONode src = ab._h2o != null ? ab._h2o : _origin;
+    if( ab._h2o != null ) {     // For the task being read to fetch before it runs
+      if( ab._broadcasts == null ) ab._broadcasts = new ArrayList<>();
+      ab._broadcasts.add(this);
+    }
+    while( true ) {
+      Entry e = CACHE.get(_key);
+      if( e != null && e._version >= _version ) break;
+      Entry n = new Entry(_version, src, _origin, null, null);
+      if( e == null ? CACHE.putIfAbsent(_key, n) == null : CACHE.replace(_key, e, n) ) {
+        if( e == null ) evictIdle(EVICT_MS); // Sweep as new values come in
+        break;
+      }
+    }
+    return this;
+  }
+
+  // Served by the node a task came from, which fetched the value itself
+  // before passing the task on, or by the origin.
+  private static class Fetch extends DTask<Fetch> {
+    Key _key;
+    int _version;
+    Freezable _val;
+    Fetch( Key key, int version ) { super(H2O.GET_KEY_PRIORITY); _key = key; _version = version; }
+    @Override public void compute2() {
+      Entry e = CACHE.get(_key);
+      _val = e == null ? null : e.at(_version);
+      _key = null;              // Not part of the return result
+      tryComplete();
+    }
+  }
+
+  private static class Drop extends MRTask<Drop> {
+    final Key _key;
+    Drop( Key key ) { _key = key; }
+    @Override protected void setupLocal() { CACHE.remove(_key); }
+  }
+}
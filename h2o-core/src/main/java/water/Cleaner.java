@@ -4,6 +4,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Arrays;
 import water.fvec.Chunk;
+import water.fvec.Vec;
 import water.util.Log;
 import water.util.PrettyPrint;
 
@@ -23,6 +24,9 @@ class Cleaner extends Thread {
   static volatile long HEAP_USED_AT_LAST_GC;
   static volatile long KV_USED_AT_LAST_GC;
   static volatile long TIME_AT_LAST_GC=System.currentTimeMillis();
+  // Which Values to evict each pass; see EvictionPolicy.  Set before the
+  // Cleaner below, whose thread uses it.
+  static final EvictionPolicy POLICY = EvictionPolicy.make(H2O.ARGS.eviction_policy);
   static final Cleaner THE_CLEANER = new Cleaner();
   static void kick_store_cleaner() {
     synchronized(THE_CLEANER) { THE_CLEANER.notifyAll(); }
@@ -31,6 +35,7 @@ class Cleaner extends Thread {
     synchronized(THE_CLEANER) { try { THE_CLEANER.wait(5000); } catch (InterruptedException ignore) { } }
   }
   volatile boolean _did_sweep;
+  private long _lastBreakdownLog; // Time of the last per-kind memory log line
   static void block_for_test() throws InterruptedException {
     THE_CLEANER._did_sweep = false;
     synchronized(THE_CLEANER) {
@@ -39,7 +44,6 @@ class Cleaner extends Thread {
     }
   }
 
-
   // Desired cache level. Set by the MemoryManager asynchronously.
   static volatile long DESIRED;
 
@@ -127,11 +131,13 @@ class Cleaner extends Thread {
 
         if( val.isLockable() ) continue; // we do not want to throw out Lockables.
         boolean isChunk = p instanceof Chunk;
+        // Pinned for an iterative Job; pins give way under memory pressure
+        if( isChunk && !force && Vec.isPinnedChunk((Key)ok) ) continue;
 
         // Ignore things younger than the required age.  In particular, do
         // not spill-to-disk all dirty things we find.
         long touched = val._lastAccessedTime;
-        if( touched > clean_to_age ) { // Too recently touched?
+        if( !POLICY.evict(val,now,clean_to_age) ) { // Too recently touched, or too costly to toss?
           // But can toss out a byte-array if already deserialized & on disk
           // (no need for both forms).  Note no savings for Chunks, for which m==p._mem
           if( val.isPersisted() && m != null && p != null && !isChunk ) {
@@ -141,6 +147,17 @@ class Cleaner extends Thread {
           dirty_store(touched); // But may write it out later
           continue;             // Too young
         }
+        // Under pressure, park unspilled Chunks in the off-heap tier if it
+        // has room; then both heap forms can go without a disk write.
+        if( isChunk && force && !val.isPersisted() && val.moveOffHeap() ) {
+          val.freeMem();
+          val.freePOJO();
+          freed += val._max;
+          POLICY.evicted();
+          force = (h._cached >= DESIRED || !MemoryManager.CAN_ALLOC);
+          continue;
+        }
+
         // Spiller turned off?
         if( !H2O.ARGS.cleaner ) continue;
 
@@ -168,6 +185,7 @@ class Cleaner extends Thread {
         }
         // And, under pressure, free all
         if( isChunk && force && (val.isPersisted() || !((Key)ok).home()) ) {
+          POLICY.evicted();
           val.freeMem ();  if( m != null ) freed += val._max;  m = null;
           val.freePOJO();  if( p != null ) freed += val._max;  p = null;
           if( isChunk ) freed -= val._max; // Double-counted freed mem for Chunks since val._pojo._mem & val._mem are the same.
@@ -189,9 +207,13 @@ class Cleaner extends Thread {
       h = Histo.current(true); // Force a new histogram
       MemoryManager.set_goals("postclean",false);
       // No logging if under memory pressure: can deadlock the cleaner thread
-      String s2 = h+" diski_o="+PrettyPrint.bytes(cleaned)+", freed="+(freed>>20)+"M, DESIRED="+(DESIRED>>20)+"M";
+      String s2 = h+" diski_o="+PrettyPrint.bytes(cleaned)+", freed="+(freed>>20)+"M, DESIRED="+(DESIRED>>20)+"M, "+POLICY;
       if( MemoryManager.canAlloc() ) Log.debug(s1,s2);
       else                           System.err.println(s1+"\n"+s2);
+      if( now - _lastBreakdownLog > 60000 && MemoryManager.canAlloc() ) {
+        _lastBreakdownLog = now;
+        Log.info(MemoryManager.kvBreakdownString());
+      }
       // For testing thread
       synchronized(this) {
         _did_sweep = true;
@@ -224,6 +246,9 @@ class Cleaner extends Thread {
     // built nor blocking for one being in-progress.
     static long cached() { return H._cached; }
     static long swapped(){ return H._swapped;}
+    static Histo latest(){ return H; }
+    // Anything on disk or off-heap as of the last pass?  Cheap enough to ask per Chunk.
+    static boolean anyOnIce() { Histo h = H; return h != null && (h._swapped > 0 || h._offheap > 0); }
 
     final long[] _hs = new long[128];
     long _oldest; // Time of the oldest K/V discovered this pass
@@ -233,6 +258,8 @@ class Cleaner extends Thread {
     long _total;  // Total data in local K/V
     long _when;   // When was this histogram computed
     long _swapped;// On-disk stuff
+    long _offheap;// Off-heap tier stuff; not part of _cached
+    long[] _kcached, _kswapped, _koffheap, _kcount; // Per MemoryManager.KV_KINDS breakdown
     Value _vold;  // For assertions: record the oldest Value
     boolean _clean; // Was "clean" K/V when built?
 
@@ -248,6 +275,11 @@ class Cleaner extends Thread {
       long cached = 0; // Total K/V cached in ram
       long total = 0;  // Total K/V in local node
       long swapped=0;  // Total K/V persisted
+      long offheap=0;  // Total K/V held in the off-heap tier
+      long[] kcached = new long[MemoryManager.KV_KINDS.length];
+      long[] kswapped= new long[MemoryManager.KV_KINDS.length];
+      long[] koffheap= new long[MemoryManager.KV_KINDS.length];
+      long[] kcount  = new long[MemoryManager.KV_KINDS.length];
       long oldest = Long.MAX_VALUE; // K/V with the longest time since being touched
       Value vold = null;
       // Start the walk at slot 2, because slots 0,1 hold meta-data
@@ -260,6 +292,10 @@ class Cleaner extends Thread {
         if( val.isNull() ) { Value.STORE_get(val._key); continue; } // Another flavor of NULL
         total += val._max;
         if( val.isPersisted() ) swapped += val._max;
+        int kind = MemoryManager.kindOf(val);
+        kcount[kind]++;
+        if( val.isPersisted() ) kswapped[kind] += val._max;
+        if( val.isOffHeap() ) { offheap += val._max; koffheap[kind] += val._max; }
         int len = 0;
         byte[] m = val.rawMem();
         Object p = val.rawPOJO();
@@ -268,6 +304,7 @@ class Cleaner extends Thread {
         if( m != null && p instanceof Chunk ) len -= val._max; // Do not double-count Chunks
         if( len == 0 ) continue;
         cached += len; // Accumulate total amount of cached keys
+        kcached[kind] += len;
 
         if( val._lastAccessedTime < oldest ) { // Found an older Value?
           vold = val; // Record oldest Value seen
@@ -282,6 +319,8 @@ class Cleaner extends Thread {
       _cached = cached; // Total cached; NOTE: larger than sum of histogram buckets
       _total = total;   // Total used data
       _swapped = swapped;
+      _offheap = offheap;
+      _kcached = kcached;  _kswapped = kswapped;  _koffheap = koffheap;  _kcount = kcount;
       _oldest = oldest; // Oldest seen in this pass
       _vold = vold;
       _clean = clean && _dirty==Long.MAX_VALUE; // Looks like a clean K/V the whole time?
@@ -305,7 +344,7 @@ class Cleaner extends Thread {
     @Override public String toString() {
       long x = _eldest;
       long now = System.currentTimeMillis();
-      return "H(cached:"+(_cached>>20)+"M, eldest:"+x+"L < +"+(_oldest-x)+"ms <...{"+_hStep+"ms}...< +"+(_hStep*_hs.length)+"ms < +"+(now-x)+")";
+      return "H(cached:"+(_cached>>20)+"M, offheap:"+(_offheap>>20)+"M, eldest:"+x+"L < +"+(_oldest-x)+"ms <...{"+_hStep+"ms}...< +"+(_hStep*_hs.length)+"ms < +"+(now-x)+")";
     }
   }
 }
@@ -0,0 +1,325 @@
+package water;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import water.nbhm.NonBlockingHashMap;
+import water.util.UnsafeUtils;
+
+/** Iced objects that are shipped to other nodes over and over with mostly the
+ *  same contents - e.g. a tree grown level by level and sent with every
+ *  level's MRTask - and are worth sending as deltas.
+ *  <p>
+ *  When such an object goes out inside a remote task (see {@link RPC}), it is
+ *  serialized in full and compared, in 64-byte blocks, with the last version
+ *  the target node is known to hold; only the changed block ranges are sent.
+ *  A version is known once the task that carried it has been answered.  The
+ *  receiver keeps recent versions per sender and object, rebuilds the full
+ *  bytes, checks them against the sender's hash and deserializes as usual.
+ *  Every message also tells the receiver which older versions it may drop.
+ *  The object's identity travels with it, so nodes relaying an MRTask further
+ *  down the node tree send deltas too.
+ *  <p>
+ *  Each side caches at most {@link #MAX_CACHED} bytes of versions, and
+ *  forgets the least recently shipped objects past that.  A receiver missing
+ *  a base version asks the sender (see {@link RPC}) to send the task again,
+ *  with its objects in full.
+ *  <p>
+ *  Opt in by extending this class instead of {@link Iced}.  Everywhere else
+ *  (DKV Values, files, RPC answers) these objects serialize exactly as plain
+ *  Iced objects do. */
+public abstract class DeltaIced<D extends DeltaIced> extends Iced<D> {
+  /** Cloud-unique identity, kept across sends and relays; 0 until first sent */
+  transient long _deltaId;
+
+  /** Written in place of the type id for delta-shipped objects */
+  static final int TAG = -2;
+  private static final int MIN_SIZE = 1024;   // Smaller objects always go as is
+  private static final int BLOCK = 64;        // Diff granularity, in bytes
+  private static final long IDLE_MS = 10*60*1000; // Sender forgets objects not sent for this long
+  /** Bytes of versions each side caches, over all nodes and objects */
+  static final long MAX_CACHED = MemoryManager.MEM_MAX>>5;
+  private static final AtomicLong SENT_BYTES = new AtomicLong(), RECV_BYTES = new AtomicLong();
+
+  private static final Random RNG = new Random();
+  private static final AtomicLong SEQ = new AtomicLong(); // Version numbers, never reused
+
+  /** One version written to a node, waiting for its task to be answered */
+  static final class Shipped {
+    final H2ONode _h2o;
+    final long _id, _seq, _baseSeq; // _baseSeq is -1 for a full send
+    final long _hash;
+    byte[] _bytes;              // Dropped once answered or abandoned
+    Shipped( H2ONode h2o, long id, long seq, long baseSeq, long hash, byte[] bytes ) {
+      _h2o = h2o; _id = id; _seq = seq; _baseSeq = baseSeq; _hash = hash; _bytes = bytes;
+    }
+  }
+
+  // Per node and object
+  private static final class NodeObj {
+    final H2ONode _h2o; final long _id;
+    NodeObj( H2ONode h2o, long id ) { _h2o = h2o; _id = id; }
+    @Override public boolean equals( Object o ) {
+      return o instanceof NodeObj && ((NodeObj)o)._h2o == _h2o && ((NodeObj)o)._id == _id;
+    }
+    @Override public int hashCode() { return _h2o.hashCode() ^ (int)(_id ^ (_id>>>32)); }
+  }
+
+  // Sender side: what a node holds and what is in flight to it; guarded by itself
+  private static final class Sent {
+    long _baseSeq = -1;         // Newest version the node is known to hold
+    long _baseHash;
+    byte[] _base;
+    final ArrayList<Shipped> _inflight = new ArrayList<>();
+    long _touched;
+    void base( long seq, long hash, byte[] b ) {
+      SENT_BYTES.addAndGet((b == null ? 0 : b.length) - (_base == null ? 0 : _base.length));
+      _baseSeq = seq; _baseHash = hash; _base = b;
+    }
+    void forget() { base(-1, 0, null); } // Next send goes in full
+    // Oldest version the node may still be asked to use as a base: our
+    // current base, the bases of in-flight deltas, and in-flight versions
+    // that may become bases once answered.
+    long floor() {
+      long f = _baseSeq == -1 ? Long.MAX_VALUE : _baseSeq;
+      for( Shipped sh : _inflight ) f = Math.min(f, sh._baseSeq == -1 ? sh._seq : sh._baseSeq);
+      return f;
+    }
+  }
+
+  // Receiver side: versions by number; guarded by itself
+  private static final class Recv {
+    final TreeMap<Long,byte[]> _vers = new TreeMap<>();
+    long _touched;
+    void put( long seq, byte[] b ) {
+      byte[] old = _vers.put(seq, b);
+      RECV_BYTES.addAndGet(b.length - (old == null ? 0 : old.length));
+    }
+    void dropBelow( long seq ) {
+      for( Iterator<byte[]> it = _vers.headMap(seq).values().iterator(); it.hasNext(); ) {
+        RECV_BYTES.addAndGet(-it.next().length);
+        it.remove();
+      }
+    }
+    void clear() { dropBelow(Long.MAX_VALUE); }
+    byte[] find( long seq, long hash ) {
+      byte[] b = _vers.get(seq);
+      if( b != null && hash(b) == hash ) return b;
+      // A resent task may have been decoded under another version number
+      for( byte[] v : _vers.values() ) if( hash(v) == hash ) return v;
+      return null;
+    }
+  }
+
+  private static final NonBlockingHashMap<NodeObj,Sent> SENT = new NonBlockingHashMap<>();
+  private static final NonBlockingHashMap<NodeObj,Recv> RECV = new NonBlockingHashMap<>();
+  private static volatile long _lastSweep;
+
+  /** Thrown reading a delta whose base version this node no longer holds */
+  static final class MissingBase extends RuntimeException {
+    MissingBase( String msg ) { super(msg); }
+  }
+
+  /** Write f for the remote node of ab, as a delta when possible.  The
+   *  version is recorded in ab, for the RPC to confirm or abandon. */
+  static AutoBuffer writeDelta( AutoBuffer ab, DeltaIced f ) { return writeDelta(ab, ab._h2o, ab._deltas, f); }
+  static AutoBuffer writeDelta( AutoBuffer ab, H2ONode h2o, ArrayList<Shipped> deltas, DeltaIced f ) {
+    byte[] cur = new AutoBuffer().put(f).buf();
+    if( cur.length < MIN_SIZE ) return ab.putA1(cur, cur.length); // Same bytes as a plain put
+    if( f._deltaId == 0 ) f._deltaId = newId();
+    long now = System.currentTimeMillis();
+    sweep(now);
+    NodeObj key = new NodeObj(h2o, f._deltaId);
+    Sent s = SENT.get(key);
+    if( s == null ) { Sent s2 = SENT.putIfAbsent(key, s = new Sent()); if( s2 != null ) s = s2; }
+    long hash = hash(cur), baseHash, floor;
+    int[] runs;
+    Shipped sh;
+    synchronized(s) {
+      s._touched = now;
+      runs = s._base == null ? null : diff(s._base, cur);
+      baseHash = s._baseHash;
+      sh = new Shipped(h2o, f._deltaId, SEQ.incrementAndGet(), runs == null ? -1 : s._baseSeq, hash, cur);
+      s._inflight.add(sh);
+      floor = s.floor();
+    }
+    deltas.add(sh);
+    ab.putInt(TAG).put8(f._deltaId).put8(sh._seq).put8(hash).putInt(cur.length).put8(floor).put8(sh._baseSeq);
+    if( runs == null ) return ab.putA1(cur, cur.length);
+    ab.put8(baseHash).putInt(runs.length>>1);
+    for( int i=0; i<runs.length; i+=2 )
+      ab.putInt(runs[i]).putInt(runs[i+1]).putA1(cur, runs[i], runs[i]+runs[i+1]);
+    return ab;
+  }
+
+  /** Read an object written by {@link #writeDelta}, after its TAG.
+   *  @throws MissingBase if the delta's base version is no longer cached */
+  static Freezable readDelta( AutoBuffer ab ) { return readDelta(ab, ab._h2o); }
+  static Freezable readDelta( AutoBuffer ab, H2ONode h2o ) {
+    long id = ab.get8(), seq = ab.get8(), hash = ab.get8();
+    int len = ab.getInt();
+    long floor = ab.get8(), baseSeq = ab.get8();
+    long now = System.currentTimeMillis();
+    sweep(now);
+    NodeObj key = new NodeObj(h2o, id);
+    Recv r = RECV.get(key);
+    if( r == null ) { Recv r2 = RECV.putIfAbsent(key, r = new Recv()); if( r2 != null ) r = r2; }
+    byte[] cur;
+    if( baseSeq == -1 ) cur = ab.getA1(len);
+    else {
+      long baseHash = ab.get8();
+      byte[] base;
+      synchronized(r) { base = r.find(baseSeq, baseHash); }
+      cur = base == null ? null : MemoryManager.arrayCopyOf(base, len);
+      int nruns = ab.getInt();
+      for( int i=0; i<nruns; i++ ) { // Read the runs even when missing the base
+        int off = ab.getInt(), n = ab.getInt();
+        byte[] run = ab.getA1(n);
+        if( cur != null ) System.arraycopy(run, 0, cur, off, n);
+      }
+      if( cur == null ) throw new MissingBase("Missing delta base version "+baseSeq+" of object "+id+" from "+h2o);
+    }
+    if( hash(cur) != hash ) throw new MissingBase("Delta-shipped object "+id+" from "+h2o+" does not match its hash");
+    synchronized(r) {
+      r._touched = now;
+      r.dropBelow(floor);       // Versions the sender will never use again
+      r.put(seq, cur);
+    }
+    if( RECV_BYTES.get() > MAX_CACHED ) trimRecv(key);
+    DeltaIced f = new AutoBuffer(cur).get();
+    f._deltaId = id;
+    return f;
+  }
+
+  /** The remote answered the task: it holds the versions shipped with it. */
+  static void confirm( ArrayList<Shipped> shipped ) {
+    // A task resent after a timeout may have been decoded from any of its
+    // sends; only trust a version if all sends carried the same bytes, and
+    // take the oldest number so the receiver keeps whichever it decoded.
+    for( int i=0; i<shipped.size(); i++ ) {
+      Shipped c = shipped.get(i);
+      boolean same = true, first = true;
+      for( int j=0; j<shipped.size(); j++ ) {
+        Shipped o = shipped.get(j);
+        if( o._id != c._id || o._h2o != c._h2o ) continue;
+        if( j < i ) { first = false; break; } // Handled at an earlier i
+        if( o._hash != c._hash ) same = false;
+        else if( o._seq < c._seq ) c = o;
+      }
+      if( !first || !same ) continue;
+      Sent s = SENT.get(new NodeObj(c._h2o, c._id));
+      if( s == null ) continue;
+      synchronized(s) {
+        if( c._seq > s._baseSeq && c._bytes != null ) s.base(c._seq, c._hash, c._bytes); // Replaces the older base
+      }
+    }
+    abandon(shipped);
+    if( SENT_BYTES.get() > MAX_CACHED ) trimSent();
+  }
+
+  /** The task was answered or canceled: its versions are no longer in flight. */
+  static void abandon( ArrayList<Shipped> shipped ) {
+    for( Shipped sh : shipped ) {
+      Sent s = SENT.get(new NodeObj(sh._h2o, sh._id));
+      if( s != null ) synchronized(s) { s._inflight.remove(sh); }
+      sh._bytes = null;
+    }
+  }
+
+  /** The remote could not rebuild a delta sent with this task: forget the
+   *  bases it was sent against, so the resent task carries them in full. */
+  static void forget( ArrayList<Shipped> shipped ) {
+    for( Shipped sh : shipped ) {
+      Sent s = SENT.get(new NodeObj(sh._h2o, sh._id));
+      if( s != null ) synchronized(s) { s.forget(); }
+    }
+    abandon(shipped);
+    shipped.clear();
+  }
+
+  // Over budget: forget the bases of the least recently shipped objects.
+  // Safe at any time; their next sends just go in full.
+  private static void trimSent() {
+    while( SENT_BYTES.get() > MAX_CACHED ) {
+      Sent lru = null;
+      for( Sent s : SENT.values() )
+        if( s._base != null && (lru == null || s._touched < lru._touched) ) lru = s;
+      if( lru == null ) return;
+      synchronized(lru) { lru.forget(); }
+    }
+  }
+
+  // Over budget: drop the versions of the least recently received objects,
+  // but never the one just received.  A sender still using a dropped version
+  // as a base gets a MissingBase and resends in full.
+  private static void trimRecv( NodeObj keep ) {
+    while( RECV_BYTES.get() > MAX_CACHED ) {
+      NodeObj lru = null; long t = Long.MAX_VALUE;
+      for( Map.Entry<NodeObj,Recv> e : RECV.entrySet() )
+        if( !e.getKey().equals(keep) && e.getValue()._touched < t && !e.getValue()._vers.isEmpty() ) { lru = e.getKey(); t = e.getValue()._touched; }
+      if( lru == null ) return;
+      Recv r = RECV.remove(lru);
+      if( r != null ) synchronized(r) { r.clear(); }
+    }
+  }
+
+  // Changed ranges of cur vs base as (offset,length) pairs, in BLOCK units;
+  // null if a delta would not save at least half.
+  static int[] diff( byte[] base, byte[] cur ) {
+    int[] runs = new int[8];
+    int n = 0, changed = 0;
+    for( int off = 0; off < cur.length; off += BLOCK ) {
+      int end = Math.min(off+BLOCK, cur.length);
+      if( end <= base.length && same(base, cur, off, end) ) continue;
+      if( n > 0 && runs[n-2]+runs[n-1] == off ) runs[n-1] += end-off; // Extend the last run
+      else {
+        if( n == runs.length ) runs = Arrays.copyOf(runs, n<<1);
+        runs[n++] = off;  runs[n++] = end-off;
+      }
+      changed += end-off;
+      if( changed > cur.length>>1 ) return null;
+    }
+    return Arrays.copyOf(runs, n);
+  }
+
+  private static boolean same( byte[] a, byte[] b, int off, int end ) {
+    int i = off;
+    for( ; i+8 <= end; i+=8 ) if( UnsafeUtils.get8(a,i) != UnsafeUtils.get8(b,i) ) return false;
+    for( ; i < end; i++ ) if( a[i] != b[i] ) return false;
+    return true;
+  }
+
+  static long hash( byte[] b ) {
+    long h = 0x9E3779B97F4A7C15L ^ b.length;
+    int i = 0;
+    for( ; i+8 <= b.length; i+=8 ) h = Long.rotateLeft(h ^ UnsafeUtils.get8(b,i)*0xC2B2AE3D27D4EB4FL, 31)*0x9E3779B97F4A7C15L;
+    for( ; i < b.length; i++ ) h = (h ^ b[i])*0x100000001B3L;
+    return h ^ (h>>>29);
+  }
+
+  private static long newId() {
+    long id;
+    do id = RNG.nextLong(); while( id == 0 );
+    return id;
+  }
+
+  // Drop state for objects that stopped being shipped.  Receivers wait twice
+  // as long as senders, so a sender never uses a base the receiver dropped.
+  private static void sweep( long now ) {
+    if( now - _lastSweep < 60*1000 ) return;
+    _lastSweep = now;
+    for( Iterator<Map.Entry<NodeObj,Sent>> it = SENT.entrySet().iterator(); it.hasNext(); ) {
+      Sent s = it.next().getValue();
+      synchronized(s) { if( now - s._touched > IDLE_MS && s._inflight.isEmpty() ) { s.forget(); it.remove(); } }
+    }
+    for( Iterator<Map.Entry<NodeObj,Recv>> it = RECV.entrySet().iterator(); it.hasNext(); ) {
+      Recv r = it.next().getValue();
+      synchronized(r) { if( now - r._touched > 2*IDLE_MS ) { r.clear(); it.remove(); } }
+    }
+  }
+}
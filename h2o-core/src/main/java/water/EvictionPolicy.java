@@ -0,0 +1,73 @@
+package water;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Pluggable Cleaner eviction policy.
+ *  <p>
+ *  Each Cleaner pass computes, from the age histogram, the last-access time
+ *  below which Values have to go to hit the desired cache level.  The policy
+ *  decides, Value by Value, whether that Value is evicted this pass: written
+ *  out (if needed) and, under pressure, dropped from the heap.
+ *  <p>
+ *  Policies count evictions, and report them next to the misses counted by
+ *  {@link Value} (swapped-out Values that had to be reloaded).  Select with
+ *  <code>-eviction_policy lru|cost</code>; the default is <code>lru</code>. */
+public abstract class EvictionPolicy {
+  private final AtomicLong _evictions = new AtomicLong();
+
+  public long misses()    { return Value.misses(); }
+  public long evictions() { return _evictions.get(); }
+  void evicted() { _evictions.incrementAndGet(); }
+
+  /** Short name, as used on the command line */
+  public abstract String name();
+
+  /** Should val be evicted in this Cleaner pass?
+   *  @param now pass start time
+   *  @param clean_to_age pure-LRU cutoff: Values last touched before this time must go */
+  abstract boolean evict( Value val, long now, long clean_to_age );
+
+  @Override public String toString() {
+    return name()+"(misses:"+misses()+", evictions:"+evictions()+")";
+  }
+
+  static EvictionPolicy make( String name ) {
+    if( name == null || name.equals("lru") ) return new LRU();
+    if( name.equals("cost") ) return new CostAware();
+    throw new IllegalArgumentException("Unknown eviction policy '"+name+"', expected one of lru, cost");
+  }
+
+  /** Plain least-recently-used: the historical Cleaner behavior. */
+  static class LRU extends EvictionPolicy {
+    @Override public String name() { return "lru"; }
+    @Override boolean evict( Value val, long now, long clean_to_age ) {
+      return val._lastAccessedTime <= clean_to_age;
+    }
+  }
+
+  /** Weighs recency against access frequency, size and reload cost.
+   *  <p>
+   *  A Value's idle time is stretched by how cheap it is to get back and
+   *  by its size, and shrunk by how often it has been used; it goes when the
+   *  stretched idle time passes the LRU cutoff.  Raw file chunks persisted
+   *  on NFS/HDFS/S3 reload from their source and age fastest; chunks that
+   *  only exist in the heap need a disk write and age slowest.  Access
+   *  counts halve every {@link Value#ACCESS_DECAY_MS} of wall-clock time,
+   *  so frequency decays like an ARC ghost list rather than growing forever,
+   *  however often the Cleaner runs. */
+  static class CostAware extends EvictionPolicy {
+    @Override public String name() { return "cost"; }
+    @Override boolean evict( Value val, long now, long clean_to_age ) {
+      long cutoff = now - clean_to_age;   // LRU idle time to beat
+      long idle = now - val._lastAccessedTime;
+      int freq = val.accessCount(now);    // Decayed frequency
+      double cost;                        // Relative reload cost
+      if( val.isPersisted() && !val.onICE() ) cost = 1; // Re-read from the source file
+      else if( val.isPersisted() || val.isOffHeap() ) cost = 2; // Cheap local reload
+      else cost = 4;                      // Needs a write before it can go
+      double size = 1 + Math.log1p(val._max/(double)(1<<20)); // Bigger frees more
+      double score = idle * size / (cost * (1 + Math.log1p(freq)));
+      return score >= cutoff;
+    }
+  }
+}
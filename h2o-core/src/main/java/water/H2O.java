@@ -46,6 +46,7 @@ import water.nbhm.NonBlockingHashMap;
 import water.persist.PersistManager;
 import water.util.GAUtils;
 import water.util.Log;
+import water.util.NumaTopology;
 import water.util.OSUtils;
 import water.util.PrettyPrint;
 
@@ -115,6 +116,68 @@ final public class H2O {
             "    -ice_root <fileSystemPath>\n" +
             "          The directory where H2O spills temporary data to disk.\n" +
             "\n" +
+            "    -ice_log\n" +
+            "          Spill to a few large append-only log files in ice_root instead\n" +
+            "          of one file per spilled value.\n" +
+            "\n" +
+            "    -ice_compress\n" +
+            "          Compress values spilled to ice_root with a fast LZ4-style codec.\n" +
+            "\n" +
+            "    -offheap_mem <megabytes>\n" +
+            "          Off-heap memory for Chunks evicted from the Java heap, kept\n" +
+            "          outside old-gen instead of being spilled to disk.  (Default 0, off.)\n" +
+            "\n" +
+            "    -eviction_policy <lru|cost>\n" +
+            "          How the spiller picks values to evict: least-recently-used, or\n" +
+            "          weighing recency, frequency, size and reload cost.  (Default lru.)\n" +
+            "\n" +
+            "    -pin_frames\n" +
+            "          Keep the training frames of iterative algorithms (GLM, KMeans,\n" +
+            "          GBM/DRF) in memory while they run, unless memory runs low.\n" +
+            "\n" +
+            "    -disable_live_rows\n" +
+            "          Have GBM/DRF rescore every row on every tree level, instead of\n" +
+            "          keeping per-chunk lists of the rows still moving down the tree.\n" +
+            "\n" +
+            "    -histo_accum <auto|shared|private>\n" +
+            "          How GBM/DRF add rows into tree histograms: atomically into the\n" +
+            "          node-shared histograms, into per-thread private copies merged\n" +
+            "          at the end, or picked per pass by size.  (Default auto.)\n" +
+            "\n" +
+            "    -tcp_channels <n>\n" +
+            "          Long-lived TCP channels kept to each peer for large transfers.\n" +
+            "          (Default 2.)\n" +
+            "\n" +
+            "    -mr_fanout <k>\n" +
+            "          Number of child nodes each node hands MRTask work to; wider trees\n" +
+            "          take fewer hops on large clouds.  (Default 2.)\n" +
+            "\n" +
+            "    -mr_leaf_us <microseconds>\n" +
+            "          Work each MRTask leaf task aims for, grouping consecutive chunks\n" +
+            "          by their measured cost; 0 maps one chunk per task.  Timing-driven, so\n" +
+            "          floating-point reductions may differ run to run.  (Default 0.)\n" +
+            "\n" +
+            "    -wire_compress\n" +
+            "          Compress large Values shipped between nodes with a fast LZ4-style\n" +
+            "          codec.\n" +
+            "\n" +
+            "    -rpc_trace_ms <milliseconds>\n" +
+            "          Keep the remote tasks taking longer than this, for the\n" +
+            "          /3/WaterMeterRpc endpoint.  Call stacks are kept for task classes\n" +
+            "          that were slow before.  (Default 0, off.)\n" +
+            "\n" +
+            "    -numa\n" +
+            "          On multi-socket Linux boxes, map each MRTask's chunks on F/J\n" +
+            "          workers pinned to one NUMA node per block of chunks, so chunks\n" +
+            "          are mapped where they were allocated.  Best with -XX:+UseNUMA.\n" +
+            "          Each node's pool gets a fixed share of the chunks and idle pools\n" +
+            "          do not steal from busy ones, so skewed chunk costs can leave a\n" +
+            "          socket idle while another finishes.\n" +
+            "\n" +
+            "    -admission_control\n" +
+            "          Queue parse and model-building jobs while their estimated working\n" +
+            "          sets would exceed the memory of the cluster.\n" +
+            "\n" +
             "    -log_dir <fileSystemPath>\n" +
             "          The directory where H2O writes logs to disk.\n" +
             "          (This usually has a good default that you need not change.)\n" +
@@ -239,6 +302,49 @@ final public class H2O {
     /** -cleaner; enable user-mode spilling of big data to disk in ice_root */
     public boolean cleaner = false;
 
+    /** -ice_log; spill to append-only segment files instead of one file per Value */
+    public boolean ice_log = false;
+
+    /** -ice_compress; LZ4-compress Values spilled to ice_root */
+    public boolean ice_compress = false;
+
+    /** -offheap_mem=MB; off-heap budget for Chunks evicted from the heap by the Cleaner; 0 disables */
+    public int offheap_mem = 0;
+
+    /** -eviction_policy=lru|cost; how the Cleaner picks Values to evict */
+    public String eviction_policy = "lru";
+
+    /** -pin_frames; pin iterative algorithms' training frames so the Cleaner evicts them last */
+    public boolean pin_frames = false;
+
+    /** -disable_live_rows; GBM/DRF rescore all rows each tree level, keeping no live-row lists */
+    public boolean disable_live_rows = false;
+
+    /** -histo_accum=auto|shared|private; how GBM/DRF accumulate tree histograms */
+    public String histo_accum = "auto";
+
+    /** -tcp_channels=n; pooled TCP channels per peer node for large AutoBuffer transfers */
+    public int tcp_channels = 2;
+
+    /** -mr_fanout=k; arity of the node tree MRTasks are distributed over */
+    public int mr_fanout = 2;
+
+    /** -mr_leaf_us=us; target work per MRTask leaf, which maps runs of consecutive chunks; 0 is one chunk per leaf.
+     *  Off by default: leaf sizes follow measured timings, and so does the order of floating-point reductions. */
+    public int mr_leaf_us = 0;
+
+    /** -wire_compress; LZ4-compress large Value payloads sent to other nodes over TCP */
+    public boolean wire_compress = false;
+
+    /** -rpc_trace_ms=ms; trace RPCs slower than this, with the stack that made them; 0 is off */
+    public int rpc_trace_ms = 0;
+
+    /** -numa; split MRTask map work over per-NUMA-node F/J pools with pinned workers */
+    public boolean numa = false;
+
+    /** -admission_control; queue Jobs whose memory estimates do not fit in the cluster */
+    public boolean admission_control = false;
+
     /** -nthreads=nthreads; Max number of F/J threads in the low-priority batch queue */
     public char nthreads= (char)Runtime.getRuntime().availableProcessors();
 
@@ -434,6 +540,55 @@ final public class H2O {
         i = s.incrementAndCheck(i, args);
         ARGS.ice_root = args[i];
       }
+      else if (s.matches("ice_log")) {
+        ARGS.ice_log = true;
+      }
+      else if (s.matches("ice_compress")) {
+        ARGS.ice_compress = true;
+      }
+      else if (s.matches("offheap_mem")) {
+        i = s.incrementAndCheck(i, args);
+        ARGS.offheap_mem = s.parseInt(args[i]);
+      }
+      else if (s.matches("eviction_policy")) {
+        i = s.incrementAndCheck(i, args);
+        ARGS.eviction_policy = args[i];
+      }
+      else if (s.matches("pin_frames")) {
+        ARGS.pin_frames = true;
+      }
+      else if (s.matches("disable_live_rows")) {
+        ARGS.disable_live_rows = true;
+      }
+      else if (s.matches("histo_accum")) {
+        i = s.incrementAndCheck(i, args);
+        ARGS.histo_accum = args[i];
+      }
+      else if (s.matches("tcp_channels")) {
+        i = s.incrementAndCheck(i, args);
+        ARGS.tcp_channels = s.parseInt(args[i]);
+      }
+      else if (s.matches("mr_fanout")) {
+        i = s.incrementAndCheck(i, args);
+        ARGS.mr_fanout = s.parseInt(args[i]);
+      }
+      else if (s.matches("mr_leaf_us")) {
+        i = s.incrementAndCheck(i, args);
+        ARGS.mr_leaf_us = s.parseInt(args[i]);
+      }
+      else if (s.matches("wire_compress")) {
+        ARGS.wire_compress = true;
+      }
+      else if (s.matches("rpc_trace_ms")) {
+        i = s.incrementAndCheck(i, args);
+        ARGS.rpc_trace_ms = s.parseInt(args[i]);
+      }
+      else if (s.matches("numa")) {
+        ARGS.numa = true;
+      }
+      else if (s.matches("admission_control")) {
+        ARGS.admission_control = true;
+      }
       else if (s.matches("log_dir")) {
         i = s.incrementAndCheck(i, args);
         ARGS.log_dir = args[i];
@@ -546,6 +701,30 @@ final public class H2O {
       }
     }
 
+    if (!ARGS.eviction_policy.equals("lru") && !ARGS.eviction_policy.equals("cost")) {
+      parseFailed("Unknown -eviction_policy " + ARGS.eviction_policy + ", expected one of lru, cost");
+    }
+
+    if (!ARGS.histo_accum.equals("auto") && !ARGS.histo_accum.equals("shared") && !ARGS.histo_accum.equals("private")) {
+      parseFailed("Unknown -histo_accum " + ARGS.histo_accum + ", expected one of auto, shared, private");
+    }
+
+    if (ARGS.tcp_channels < 1) {
+      parseFailed("-tcp_channels must be at least 1");
+    }
+
+    if (ARGS.mr_fanout < 2) {
+      parseFailed("-mr_fanout must be at least 2");
+    }
+
+    if (ARGS.mr_leaf_us < 0) {
+      parseFailed("-mr_leaf_us must not be negative");
+    }
+
+    if (ARGS.rpc_trace_ms < 0) {
+      parseFailed("-rpc_trace_ms must not be negative");
+    }
+
     // Validate extension arguments
     for (AbstractH2OExtension e : H2O.getExtensions()) {
       e.validateArguments();
@@ -1036,13 +1215,20 @@ final public class H2O {
   // made public for ddply
   public static class FJWThr extends ForkJoinWorkerThread {
     public int _priority;
+    private final String _cpus; // CPUs to pin to, for NUMA node pools
     FJWThr(ForkJoinPool pool) {
       super(pool);
-      _priority = ((PrioritizedForkJoinPool)pool)._priority;
+      PrioritizedForkJoinPool p = (PrioritizedForkJoinPool)pool;
+      _priority = p._priority;
+      _cpus = p._cpus;
       setPriority( _priority == Thread.MIN_PRIORITY
                    ? Thread.NORM_PRIORITY-1
                    : Thread. MAX_PRIORITY-1 );
-      setName("FJ-"+_priority+"-"+getPoolIndex());
+      setName("FJ-"+_priority+(p._numaNode < 0 ? "" : "-n"+p._numaNode)+"-"+getPoolIndex());
+    }
+    @Override protected void onStart() {
+      super.onStart();
+      if( _cpus != null ) NumaTopology.pinCurrentThread(_cpus); // Queued; pinned off this thread
     }
   }
   // Factory for F/J threads, with cap's that vary with priority.
@@ -1058,12 +1244,26 @@ final public class H2O {
   // A standard FJ Pool, with an expected priority level.
   private static class PrioritizedForkJoinPool extends ForkJoinPool {
     final int _priority;
+    final int _numaNode;        // -1 unless the pool of a NUMA node
+    final String _cpus;         // That node's CPUs
     private PrioritizedForkJoinPool(int p, int cap) {
       super((ARGS.nthreads <= 0) ? NUMCPUS : ARGS.nthreads,
             new FJWThrFact(cap),
             null,
             p<MIN_HI_PRIORITY);
       _priority = p;
+      _numaNode = -1;
+      _cpus = null;
+    }
+    // A NUMA node's share of the threads, pinned to its CPUs
+    private PrioritizedForkJoinPool(int p, int node, int[] cpus) {
+      super(Math.max(1, ((ARGS.nthreads <= 0) ? NUMCPUS : ARGS.nthreads)*cpus.length/NUMCPUS),
+            new FJWThrFact(-1),
+            null,
+            p<MIN_HI_PRIORITY);
+      _priority = p;
+      _numaNode = node;
+      _cpus = NumaTopology.toCpuList(cpus);
     }
     private H2OCountedCompleter poll2() { return (H2OCountedCompleter)pollSubmission(); }
   }
@@ -1079,6 +1279,38 @@ final public class H2O {
     FJPS[GUI_PRIORITY] = new PrioritizedForkJoinPool(GUI_PRIORITY,2);
   }
 
+  // With -numa, per NUMA node F/J pools by priority, for MRTask map work.
+  // Made on first use, after argument parsing.
+  private static volatile PrioritizedForkJoinPool NUMA_FJPS[][];
+  private static int[][] NUMA_CPUS;
+
+  /** Number of NUMA nodes MRTask map work is split over; 1 without -numa */
+  public static int numaNodes() {
+    if( !ARGS.numa ) return 1;
+    PrioritizedForkJoinPool[][] p = NUMA_FJPS;
+    if( p == null )
+      synchronized( H2O.class ) {
+        if( (p = NUMA_FJPS) == null ) {
+          int[][] cpus = NumaTopology.read();
+          if( cpus == null ) { Log.warn("Cannot read the NUMA topology, ignoring -numa"); cpus = new int[0][]; }
+          else Log.info("Splitting map work over " + cpus.length + " NUMA nodes");
+          NUMA_CPUS = cpus;
+          NUMA_FJPS = p = new PrioritizedForkJoinPool[cpus.length][MAX_PRIORITY+1];
+        }
+      }
+    return Math.max(p.length, 1);
+  }
+
+  /** Submit to the correct priority queue of the given NUMA node's pools */
+  static <T extends H2OCountedCompleter> T submitTask( int numaNode, T task ) {
+    int priority = task.priority();
+    PrioritizedForkJoinPool[] ps = NUMA_FJPS[numaNode];
+    if( ps[priority]==null )
+      synchronized( H2O.class ) { if( ps[priority] == null ) ps[priority] = new PrioritizedForkJoinPool(priority,numaNode,NUMA_CPUS[numaNode]); }
+    ps[priority].submit(task);
+    return task;
+  }
+
   // Easy peeks at the FJ queues
   static int getWrkQueueSize  (int i) { return FJPS[i]==null ? -1 : FJPS[i].getQueuedSubmissionCount();}
   static int getWrkThrPoolSize(int i) { return FJPS[i]==null ? -1 : FJPS[i].getPoolSize();             }
@@ -1631,6 +1863,7 @@ final public class H2O {
     // If the K/V mapping is changing, let the store cleaner just overwrite.
     // If the K/V mapping is new, let the store cleaner just create
     if( old != null && val == null ) old.removePersist(); // Remove the old guy
+    if( old != null && val != null ) old.releaseOffHeap(); // Old guy's off-heap copy is dead
     if( val != null ) {
       Cleaner.dirty_store(); // Start storing the new guy
       if( old==null ) Scope.track_internal(key); // New Key - start tracking
@@ -194,33 +194,64 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
   public int index() { return H2O.CLOUD.nidx(this); }
 
   // ---------------
-  // A queue of available TCP sockets
-  // re-usable TCP socket opened to this node, or null.
-  // This is essentially a BlockingQueue/Stack that allows null.
-  private transient SocketChannel _socks[] = new SocketChannel[2];
-  private transient int _socksAvail=_socks.length;
+  // A pool of re-usable, long-lived TCP channels to this node, for AutoBuffer
+  // transfers too big for the batched small-message channel.  At most
+  // H2O.ARGS.tcp_channels are handed out (or being opened) at once; further
+  // writers block - backpressure - and are let in highest message priority
+  // first, then in arrival order, so a burst of bulk chunk transfers cannot
+  // starve a high-priority reply.  Freed channels are reused most-recently
+  // used first, keeping the fewest channels warm.
+  private transient final ArrayDeque<SocketChannel> _idleSocks = new ArrayDeque<>();
+  private transient final PriorityQueue<SockWaiter> _sockWaiters = new PriorityQueue<>();
+  private transient int _socksOut;  // Channels handed out or being opened; guarded by this
+  private transient long _sockSeq;  // Arrival order of waiters; guarded by this
   // Count of concurrent TCP requests both incoming and outgoing
   static final AtomicInteger TCPS = new AtomicInteger(0);
 
-  SocketChannel getTCPSocket() throws IOException {
-    // Under lock, claim an existing open socket if possible
+  private static final class SockWaiter implements Comparable<SockWaiter> {
+    final byte _priority; final long _seq;
+    SockWaiter( byte priority, long seq ) { _priority = priority; _seq = seq; }
+    @Override public int compareTo( SockWaiter w ) {
+      if( _priority != w._priority ) return w._priority - _priority; // Higher priority first
+      return Long.compare(_seq, w._seq);                             // Then FIFO
+    }
+  }
+
+  SocketChannel getTCPSocket( byte priority ) throws IOException {
+    SocketChannel sock;
+    // Under lock, wait our turn for a channel slot
     synchronized(this) {
-      // Limit myself to the number of open sockets from node-to-node
-      while( _socksAvail == 0 )
+      SockWaiter w = new SockWaiter(priority, _sockSeq++);
+      _sockWaiters.add(w);
+      while( _sockWaiters.peek() != w || _socksOut >= H2O.ARGS.tcp_channels )
         try { wait(1000); } catch( InterruptedException ignored ) { }
-      // Claim an open socket
-      SocketChannel sock = _socks[--_socksAvail];
-      if( sock != null ) {
-        if( sock.isOpen() ) return sock; // Return existing socket!
-        // Else it's an already-closed socket, lower open TCP count
-        assert TCPS.get() > 0;
-        TCPS.decrementAndGet();
-      }
+      _sockWaiters.poll();
+      _socksOut++;
+      sock = _idleSocks.pollFirst();
+      notifyAll();              // Next waiter may also have a free slot
+    }
+    if( sock != null ) {
+      if( sock.isOpen() ) return sock; // Return existing socket!
+      // Else it's an already-closed socket, lower open TCP count
+      assert TCPS.get() > 0;
+      TCPS.decrementAndGet();
     }
     // Must make a fresh socket
+    try { return openTCPSocket(); }
+    catch( IOException ioe ) {
+      synchronized(this) { _socksOut--; notifyAll(); }
+      throw ioe;
+    }
+  }
+
+  private SocketChannel openTCPSocket() throws IOException {
     SocketChannel sock2 = SocketChannel.open();
     sock2.socket().setReuseAddress(true);
     sock2.socket().setSendBufferSize(AutoBuffer.BBP_BIG._size);
+    // Long-lived: notice dead peers, and do not let Nagle hold back the tail
+    // of a transfer while we wait on the reader's handshake byte
+    sock2.socket().setKeepAlive(true);
+    sock2.socket().setTcpNoDelay(true);
     boolean res = sock2.connect( _key );
     assert res && !sock2.isConnectionPending() && sock2.isBlocking() && sock2.isConnected() && sock2.isOpen();
     ByteBuffer bb = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
@@ -234,12 +265,12 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     return sock2;
   }
   synchronized void freeTCPSocket( SocketChannel sock ) {
-    assert 0 <= _socksAvail && _socksAvail < _socks.length;
+    assert 0 < _socksOut && _socksOut <= H2O.ARGS.tcp_channels;
     assert TCPS.get() > 0;
-    if( sock != null && !sock.isOpen() ) sock = null;
-    _socks[_socksAvail++] = sock;
-    if( sock == null ) TCPS.decrementAndGet();
-    notify();
+    _socksOut--;
+    if( sock != null && sock.isOpen() ) _idleSocks.addFirst(sock);
+    else TCPS.decrementAndGet();
+    notifyAll();
   }
 
   // ---------------
@@ -3,6 +3,7 @@ package water;
 import jsr166y.CountedCompleter;
 import java.util.Arrays;
 import water.H2O.H2OCountedCompleter;
+import water.fvec.Vec;
 import water.util.ArrayUtils;
 import water.util.Log;
 
@@ -108,6 +109,22 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
         @Override boolean abort(Job job) { return job._stop_requested; }
         @Override void update(Job job) { job._stop_requested = true; }
       }.apply(this);
+    if( _queued ) JobAdmission.cancel(_key); // Never admitted; leave the queue
+  }
+
+  /** Jobs may declare an estimated working set, in bytes, before starting.
+   *  With <code>-admission_control</code>, a Job whose estimate does not fit
+   *  next to the already-running Jobs is queued - running, but not yet
+   *  computing - until enough memory is released.  See {@link JobAdmission}. */
+  public long _mem_estimate;
+  private boolean _queued;
+  public boolean isQueued() { update_from_remote(); return _queued; }
+  // Mark queued with the given message, or admitted if msg is null
+  void setQueued(final String msg) {
+    new JAtomic() {
+      @Override boolean abort(Job job) { return false; }
+      @Override void update(Job job) { job._queued = msg != null; job._msg = msg; }
+    }.apply(this);
   }
 
   /** Any exception thrown by this Job, or null if none.  Note that while
@@ -256,8 +273,9 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
         return old;
       }
     }.invoke(LIST);
-    // 4 - Fire off the FJTASK
-    H2O.submitTask(fjtask);
+    // 4 - Fire off the FJTASK, once the cluster has room for it
+    if( JobAdmission.needsAdmission(this) ) JobAdmission.submit(this, fjtask);
+    else H2O.submitTask(fjtask);
     return this;
   }
   transient private Barrier2 _barrier; // Top-level task to block on
@@ -280,10 +298,14 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
     Barrier1(CountedCompleter cc) { super(cc,0); }
     @Override public void compute() { }
     @Override public void onCompletion(CountedCompleter caller) {
+      JobAdmission.release(_key);
+      Vec.unpinAll(_key);
       new Barrier1OnCom().apply(Job.this);
       _barrier = null;          // Free for GC
     }
     @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) {
+      JobAdmission.release(_key);
+      Vec.unpinAll(_key);
       if(Job.isCancelledException(ex)) {
         new Barrier1OnCom().apply(Job.this);
         _barrier = null;
@@ -371,6 +393,7 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
     if(_worked    != remote._worked    ) differ = true;
     if(_msg       != remote._msg       ) differ = true;
     if(_max_runtime_msecs != remote._max_runtime_msecs) differ = true;
+    if(_queued    != remote._queued    ) differ = true;
     if( differ )
       synchronized(this) { 
         _stop_requested = remote._stop_requested;
@@ -381,6 +404,7 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
         _worked    = remote._worked    ;
         _msg       = remote._msg       ;
         _max_runtime_msecs = remote._max_runtime_msecs;
+        _queued    = remote._queued    ;
       }
   }
   @Override public Class<water.api.KeyV3.JobKeyV3> makeSchema() { return water.api.KeyV3.JobKeyV3.class; }
@@ -0,0 +1,178 @@
+package water;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import water.H2O.H2OCountedCompleter;
+import water.nbhm.NonBlockingHashMap;
+import water.util.Log;
+import water.util.PrettyPrint;
+
+/** Cluster-wide admission control for memory-hungry Jobs.
+ *  <p>
+ *  Jobs that declare an estimated working set ({@link Job#_mem_estimate})
+ *  reserve it from a single ledger kept on the cloud leader before their
+ *  top-level task is submitted.  While the sum of reservations would pass
+ *  3/4 of the cluster heap - the same share {@link MemoryManager} sets aside
+ *  for tasks - new Jobs wait first-come first-served, reporting a QUEUED
+ *  status, and are started as earlier Jobs finish and release.  A Job is
+ *  always admitted when nobody else holds a reservation, so an oversized Job
+ *  runs alone rather than never.
+ *  <p>
+ *  Jobs started from inside another computation (on a F/J worker thread) are
+ *  not queued: their parent already holds a reservation, and queueing the
+ *  child behind its own parent would deadlock.
+ *  <p>
+ *  Enabled with <code>-admission_control</code>. */
+public final class JobAdmission {
+  // Home node: top-level tasks of Jobs waiting for admission
+  private static final NonBlockingHashMap<Key,H2OCountedCompleter> PENDING = new NonBlockingHashMap<>();
+  // Home node: Jobs that went through the ledger and must release on completion
+  private static final NonBlockingHashMap<Key,Key> HELD = new NonBlockingHashMap<>();
+
+  // Leader: the ledger, all guarded by LEDGER
+  private static final Object LEDGER = new Object();
+  private static final HashMap<Key,Long> ADMITTED = new HashMap<>();
+  private static final LinkedHashMap<Key,Long> QUEUE = new LinkedHashMap<>();
+  private static long _reserved;
+
+  static boolean needsAdmission( Job job ) {
+    return H2O.ARGS.admission_control && job._mem_estimate > 0 &&
+      !(Thread.currentThread() instanceof H2O.FJWThr);
+  }
+
+  /** Reserve job's working set and submit fjtask, now or once the cluster
+   *  has room for it. */
+  static void submit( Job job, H2OCountedCompleter fjtask ) {
+    final Key key = job._key;
+    PENDING.put(key, fjtask);
+    HELD.put(key, key);
+    Reserve r = new RPC<>(H2O.CLOUD.leader(), new Reserve(key, job._mem_estimate)).call().get();
+    if( r._admitted ) { start(key); return; }
+    synchronized(PENDING) {
+      if( PENDING.containsKey(key) ) // Not admitted while we asked
+        job.setQueued("Queued behind " + (r._position-1) + " jobs: needs " + PrettyPrint.bytes(job._mem_estimate) +
+                      ", " + PrettyPrint.bytes(r._used) + " of " + PrettyPrint.bytes(r._capacity) + " reserved");
+    }
+  }
+
+  // Home node: the Job was admitted, fire off its task
+  private static void start( Key key ) {
+    H2OCountedCompleter fjtask;
+    synchronized(PENDING) { fjtask = PENDING.remove(key); }
+    if( fjtask == null ) return; // Already started
+    Job job = DKV.getGet(key);
+    if( job != null && job.isQueued() ) job.setQueued(null);
+    H2O.submitTask(fjtask);
+  }
+
+  /** Return a finished Job's reservation to the ledger. */
+  static void release( Key key ) {
+    if( HELD.remove(key) != null )
+      RPC.call(H2O.CLOUD.leader(), new Release(key));
+  }
+
+  /** Drop a queued Job from the ledger's queue; it is started without a
+   *  reservation so that it can notice the stop request and finish. */
+  static void cancel( Key key ) {
+    RPC.call(H2O.CLOUD.leader(), new Cancel(key));
+  }
+
+  // Leader: memory available for Job working sets
+  private static long capacity() {
+    long mem = 0;
+    for( H2ONode h2o : H2O.CLOUD.members() ) {
+      HeartBeat hb = h2o._heartbeat;
+      if( hb._client ) continue;
+      mem += hb.get_kv_mem() + hb.get_pojo_mem() + hb.get_free_mem();
+    }
+    return mem - (mem>>2);
+  }
+
+  // Leader: admit queued Jobs, in order, while they fit.  Call under LEDGER.
+  private static ArrayList<Key> drain( long capacity ) {
+    ArrayList<Key> admitted = new ArrayList<>();
+    Iterator<Map.Entry<Key,Long>> it = QUEUE.entrySet().iterator();
+    while( it.hasNext() ) {
+      Map.Entry<Key,Long> e = it.next();
+      if( _reserved > 0 && _reserved + e.getValue() > capacity ) break;
+      it.remove();
+      ADMITTED.put(e.getKey(), e.getValue());
+      _reserved += e.getValue();
+      admitted.add(e.getKey());
+    }
+    return admitted;
+  }
+
+  private static void admit( ArrayList<Key> keys ) {
+    for( Key key : keys ) {
+      Log.info("Admitting job " + key);
+      RPC.call(key.home_node(), new Admit(key));
+    }
+  }
+
+  // Reserve on the leader: admit now, or queue
+  private static class Reserve extends DTask<Reserve> {
+    final Key _job;
+    final long _bytes;
+    boolean _admitted;
+    int _position;              // Place in the queue, if not admitted
+    long _used, _capacity;      // Ledger state, for the queued message
+    Reserve( Key job, long bytes ) { super(H2O.MIN_HI_PRIORITY); _job = job; _bytes = bytes; }
+    @Override public void compute2() {
+      ArrayList<Key> admitted;
+      synchronized(LEDGER) {
+        _capacity = capacity();
+        QUEUE.put(_job, _bytes);
+        admitted = drain(_capacity);
+        _position = QUEUE.size();
+        _used = _reserved;
+      }
+      _admitted = admitted.remove(_job); // Our caller starts us; others may have fit too
+      admit(admitted);
+      if( !_admitted )
+        Log.info("Queueing job " + _job + " needing " + PrettyPrint.bytes(_bytes) + ", " +
+                 PrettyPrint.bytes(_used) + " of " + PrettyPrint.bytes(_capacity) + " reserved");
+      tryComplete();
+    }
+  }
+
+  // Release on the leader, and admit whatever now fits
+  private static class Release extends DTask<Release> {
+    final Key _job;
+    Release( Key job ) { super(H2O.MIN_HI_PRIORITY); _job = job; }
+    @Override public void compute2() {
+      ArrayList<Key> admitted;
+      synchronized(LEDGER) {
+        Long bytes = ADMITTED.remove(_job);
+        if( bytes != null ) _reserved -= bytes;
+        else QUEUE.remove(_job);
+        admitted = drain(capacity());
+      }
+      admit(admitted);
+      tryComplete();
+    }
+  }
+
+  // Cancel on the leader: a stopped Job leaves the queue unreserved
+  private static class Cancel extends DTask<Cancel> {
+    final Key _job;
+    Cancel( Key job ) { super(H2O.MIN_HI_PRIORITY); _job = job; }
+    @Override public void compute2() {
+      boolean queued;
+      synchronized(LEDGER) { queued = QUEUE.remove(_job) != null; }
+      if( queued ) RPC.call(_job.home_node(), new Admit(_job));
+      tryComplete();
+    }
+  }
+
+  // Start an admitted Job on its home node
+  private static class Admit extends DTask<Admit> {
+    final Key _job;
+    Admit( Key job ) { super(H2O.MIN_HI_PRIORITY); _job = job; }
+    @Override public void compute2() { start(_job); tryComplete(); }
+  }
+}
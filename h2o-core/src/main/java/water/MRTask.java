@@ -7,7 +7,11 @@ import water.util.DistributedException;
 import water.util.PrettyPrint;
 import water.fvec.Vec.VectorGroup;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import water.nbhm.NonBlockingHashMap;
 
 /**
  * Map/Reduce style distributed computation.
@@ -70,7 +74,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *
   *    internal "top-level" fields
   *    ---------------------------
-  *     - RPC<T> _nleft, _nrite: "child" node/JVMs that are doing work
+  *     - RPC<T>[] _nkids      : "child" node/JVMs that are doing work
   *     - boolean _topLocal    : "root" MRTask on a local machine
   *     - boolean _topGlobal   : "root" MRTask on the "root" node
   *     - T _left, _rite       : "child" MRTasks on a local machine
@@ -83,10 +87,14 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *              3 node cloud              Inside one of the 'N' nodes:
   *                   N1                               T  _topLocal**
   *                 /   \                            /  \
-  *         N2 (_nleft)  N3 (_nrite)         T (_left)   T (_rite)
+  *         N2 (_nkids[0])  N3 (_nkids[1])   T (_left)   T (_rite)
   *
   *                  **: T is also _topGlobal if N==N1
   *
+  *    Nodes split their range of nodes -mr_fanout ways (default 2, as drawn);
+  *    a wider fan-out makes a shallower tree with fewer RPC hops, at the cost
+  *    of more children per node to serialize to and reduce from.
+  *
   *    These fields get set in the <code>SetupLocal0<code> call. Let's see what it does:
   *
   *     Diagram 2:
@@ -101,9 +109,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *                ==>       setupLocal0 on N1
   *                            - topLocal=true
   *                            - _fs = new Futures()
-  *                            - nmid = (_nlo + _nhi) >> 1 => split the range of nodes (divide-conquer)
-  *                            - _nleft = remote_compute(_nlo,nmid) => chooses a node in range and does new RPC().call()
-  *                            - _nrite = remote_compute(nmid,_nhi)    serializing MRTask and call dinvoke on remote.
+  *                            - split the range of nodes -mr_fanout ways (divide-conquer), e.g. at nmid
+  *                            - _nkids[0] = remote_compute(_nlo,nmid) => chooses a node in range and does new RPC().call()
+  *                            - _nkids[1] = remote_compute(nmid,_nhi)    serializing MRTask and call dinvoke on remote.
   *                           /                                 \
   *                         /                                     \
   *                       /                                         \
@@ -149,8 +157,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  style, can not be passed via K/V store).*/
   protected AppendableVec[] _appendables;
 
-  /** Internal field to track the left &amp; right remote nodes/JVMs to work on */
-  transient protected RPC<T> _nleft, _nrite;
+  /** Internal field to track the remote child nodes/JVMs to work on, one per
+   *  sub-range of nodes (null for empty sub-ranges) */
+  transient protected RPC<T>[] _nkids;
 
   /** Internal field to track if this is a top-level local call */
   transient protected boolean _topLocal; // Top-level local call, returning results over the wire
@@ -164,22 +173,48 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** Internal field upon which all reduces occur. */
   transient private T _res;           // Result
 
+  /** Remote results folded in so far, when {@link #_pipeline_reduce} */
+  transient private T _remote;
+
   /** The range of Nodes to work on remotely */
   protected short _nlo, _nhi;
 
   /** Internal field to track a range of local Chunks to work on */
   transient protected int _lo, _hi;
 
+  /** With -numa, the tasks mapping each NUMA node's block of chunks */
+  transient private MRTask<T>[] _numa;
+
+  /** Most Chunk indices one leaf task maps, one after another; see {@link LeafStats} */
+  transient private int _leaf = 1;
+
   /** We can add more things to block on - in case we want a bunch of lazy
    *  tasks produced by children to all end before this top-level task ends.
    *  Semantically, these will all complete before we return from the top-level
    *  task.  Pragmatically, we block on a finer grained basis. */
   transient protected Futures _fs; // More things to block on
 
+  // Broadcast handles this task arrived with, to fetch before running
+  transient ArrayList<Broadcast> _broadcasts;
+
+  /** If true (the default), asynchronously reload the next swapped-out Chunk
+   *  while the current one is mapped.  See {@link Vec#prefetch}. */
+  protected boolean _prefetch = true;
+
   /** If true, run entirely local - which will pull all the data locally. */
   protected boolean _run_local;
 
-  public String profString() { return _profile != null ? _profile.toString() : "Profiling turned off"; }
+  /** If true, fold each remote node's result in as soon as it arrives, while
+   *  local maps and other remote nodes are still running, rather than reducing
+   *  all remote results after the local work is done.  Worth it for tasks with
+   *  big reduce state (e.g. a Gram matrix).  Opt-in: reduce() then runs
+   *  concurrently with map() - never on the same objects - so it must not
+   *  touch node-shared state. */
+  protected boolean _pipeline_reduce;
+
+  public String profString() {
+    return _profile != null ? _profile.toString() + "Leaves: " + leafStats(getClass()) : "Profiling turned off";
+  }
   MRProfile _profile;
 
   /** Used to invoke profiling.  Call as: <code>new MRTask().profile().doAll();*/
@@ -310,8 +345,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       _localdone = System.currentTimeMillis();
     }
     // See where these are set to understand their meaning.  If we split the
-    // job, then _lstart & _rstart are the start of left & right jobs.  If we
-    // do NOT split, then _rstart is 0 and _lstart is for the user map job(s).
+    // job, then _lstart & _rstart are the start of the first & last remote
+    // jobs.  If we do NOT split, then _rstart is 0 and _lstart is for the
+    // user map job(s).
     long _localstart, _rpcLstart, _rpcRstart, _rpcRdone, _localdone; // Local setup, RPC network i/o times
     long _mapstart, _userstart, _closestart, _mapdone; // MAP phase
     long _onCstart, _reducedone, _closeLocalDone, _remoteBlkDone, _localBlkDone, _onCdone; // REDUCE phase
@@ -329,9 +365,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         _last           = _last._onCdone >  p._onCdone ? _last : p;
         if( first._onCdone > _done1st ) { _time1st = first.sumTime(); _done1st = first._onCdone; }
       }
-      if( size_rez !=0 )        // Record i/o result size
-        if( _size_rez0 == 0 ) _size_rez0=size_rez;
-        else                  _size_rez1=size_rez;
+      if( size_rez !=0 )        // Record i/o result size; 1st and all later remotes
+        if( _size_rez0 == 0 ) _size_rez0 =size_rez;
+        else                  _size_rez1+=size_rez;
       assert _userstart !=0 || _last != null;
       assert _last._onCdone >= _done1st;
     }
@@ -367,6 +403,61 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     }
   }
 
+  // Leaf task sizing.  Splitting chunk ranges all the way down to single
+  // chunks costs a split, a F/J fork and a completion per chunk; with many
+  // tiny chunks that overhead dominates.  Instead leaves map runs of
+  // consecutive chunks sized from what earlier runs of the same task class
+  // cost per Chunk index (counting indices homed elsewhere as free), aiming
+  // for -mr_leaf_us of work per leaf, while keeping at least 4 leaves per
+  // F/J thread so load still balances.  Older runs weigh half as much on
+  // every new run, so the size follows changing costs.  As leaves reduce
+  // their chunks in sequence rather than pairwise, floating-point results
+  // then depend on timing; hence sizing is opt-in.
+  static final class LeafStats {
+    private final AtomicLong _ns = new AtomicLong(), _span = new AtomicLong(); // Decayed leaf time and indices
+    private final AtomicLong _leaves = new AtomicLong(), _chunks = new AtomicLong(); // Totals, for reporting
+    volatile int _leaf = 1;             // Last leaf size picked
+
+    void record( long ns, int span, int mapped ) {
+      _ns.addAndGet(ns);
+      _span.addAndGet(span);
+      _leaves.incrementAndGet();
+      _chunks.addAndGet(mapped);
+    }
+
+    int leafSize( int nchunks ) {
+      long ns = _ns.get(), span = _span.get();
+      _ns.addAndGet(-(ns>>1));
+      _span.addAndGet(-(span>>1));
+      long target = H2O.ARGS.mr_leaf_us*1000L;
+      if( target == 0 || span == 0 ) return _leaf = 1;
+      int nthreads = H2O.ARGS.nthreads <= 0 ? H2O.NUMCPUS : H2O.ARGS.nthreads;
+      long cap = Math.max(1, nchunks/(4*nthreads));
+      long leaf = ns == 0 ? cap : (target*span+ns-1)/ns;
+      return _leaf = (int)Math.max(1, Math.min(cap, leaf));
+    }
+
+    @Override public String toString() {
+      long leaves = _leaves.get(), chunks = _chunks.get(), span = _span.get();
+      return leaves + " leaves, " + chunks + " chunks mapped (" + (leaves == 0 ? 0 : chunks/(double)leaves) +
+        " per leaf), leaf size " + _leaf + ", " + (span == 0 ? 0 : _ns.get()/(1000.0*span)) + "us per chunk index";
+    }
+  }
+  private static final NonBlockingHashMap<Class,LeafStats> LEAF_STATS = new NonBlockingHashMap<>();
+  static LeafStats leafStats( Class clz ) {
+    LeafStats ls = LEAF_STATS.get(clz);
+    if( ls == null ) { LeafStats ls2 = LEAF_STATS.putIfAbsent(clz, ls = new LeafStats()); if( ls2 != null ) ls = ls2; }
+    return ls;
+  }
+
+  /** Leaf task sizes and costs on this node, per MRTask class */
+  public static String leafStats() {
+    StringBuilder sb = new StringBuilder();
+    for( Map.Entry<Class,LeafStats> e : LEAF_STATS.entrySet() )
+      sb.append(e.getKey().getName()).append(": ").append(e.getValue()).append("\n");
+    return sb.toString();
+  }
+
   // Support for fluid-programming with strong types
   protected T self() { return (T)this; }
 
@@ -497,6 +588,8 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** Called once on remote at top level, probably with a subset of the cloud.
    *  Called internal by D/F/J.  Not expected to be user-called.  */
   @Override public final void dinvoke(H2ONode sender) {
+    Broadcast.fetchAll(_broadcasts); // Before our children ask us for them
+    _broadcasts = null;
     setupLocal0();              // Local setup
     H2O.submitTask(this);
   }
@@ -516,16 +609,22 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     int selfidx = selfidx();
     int nlo = subShift(selfidx);
     assert nlo < _nhi;
-    final int nmid = (nlo+_nhi)>>>1; // Mid-point
 
     // Run remote IF:
     // - Not forced to run local (no remote jobs allowed) AND
     // - - There's remote work, or Client mode (always remote work)
     if( (!_run_local) && ((nlo+1 < _nhi) || H2O.ARGS.client) ) {
       if(_profile!=null) _profile._rpcLstart = System.currentTimeMillis();
-      _nleft = remote_compute(H2O.ARGS.client ? nlo : nlo+1,nmid);
-      if(_profile!=null) _profile._rpcRstart = System.currentTimeMillis();
-      _nrite = remote_compute( nmid,_nhi);
+      // Split [nlo,_nhi) into k near-equal sub-ranges; self takes the first
+      // node of the first one (unless a client, which does no work).
+      final int k = H2O.ARGS.mr_fanout, n = _nhi-nlo;
+      _nkids = new RPC[k];
+      for( int i=0; i<k; i++ ) {
+        int lo = nlo + n*i/k, hi = nlo + n*(i+1)/k;
+        if( i==0 && !H2O.ARGS.client ) lo++;
+        if( i==k-1 && _profile!=null ) _profile._rpcRstart = System.currentTimeMillis();
+        _nkids[i] = remote_compute(lo,hi);
+      }
       if(_profile!=null) _profile._rpcRdone  = System.currentTimeMillis();
     } else {
       if(_profile!=null) 
@@ -534,6 +633,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
 
     if( _fr != null ) {                       // Doing a Frame
       _lo = 0;  _hi = _fr.numCols()==0 ? 0 : _fr.anyVec().nChunks(); // Do All Chunks
+      _leaf = leafStats(getClass()).leafSize(_hi);
       // get the Vecs from the K/V store, to avoid racing fetches from the map calls
       _fr.vecs();
     } else if( _keys != null ) {    // Else doing a set of Keys
@@ -563,18 +663,44 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       // - when launched on the local (right here, in this next line of code)
       //   the completed RPC calls our self completion.  i.e. the completed RPC
       //   calls MRTask.onCompletion
-      return new RPC<>(H2O.CLOUD._memary[node], mrt).addCompleter(this).call();
+      return new RPC<>(H2O.CLOUD._memary[node], mrt).addCompleter(_pipeline_reduce ? new RemoteFold() : this).call();
     }
     return null; // nlo >= nhi => no remote work
   }
 
+  // Completes a remote child RPC for _pipeline_reduce: folds the child's
+  // result in as it arrives, then completes the parent MRTask.
+  private class RemoteFold extends H2O.H2OCountedCompleter {
+    final Object _lock = _nkids; // Shared by all children of this MRTask
+    RemoteFold() { super(MRTask.this); }
+    @Override public void onCompletion( CountedCompleter caller ) { fold((T)caller, _lock); }
+  }
+
+  // Fold a remote result into _remote.  The lock only covers taking and
+  // parking the partial sums, so concurrent arrivals never wait on a reduce.
+  private void fold( T mrt, Object lock ) {
+    if( mrt._nhi == -1 ) return; // No results at all
+    while( true ) {
+      T r;
+      synchronized(lock) { r = _remote; _remote = r == null ? mrt : null; }
+      if( r == null ) return;   // Parked
+      r.reduce4(mrt);           // Sum with the parked result, and retry
+      mrt = r;
+    }
+  }
+
   /** Called from FJ threads to do local work.  The first called Task (which is
    *  also the last one to Complete) also reduces any global work.  Called
    *  internal by F/J.  Not expected to be user-called.  */
   @Override public final void compute2() {
     assert _left == null && _rite == null && _res == null;
     if(_profile!=null) _profile._mapstart = System.currentTimeMillis();
-    if( (_hi-_lo) >= 2 ) { // Multi-chunk case: just divide-and-conquer to 1 chunk
+    int nodes;
+    if( _topLocal && _fr != null && (_hi-_lo) > 1 && (nodes = H2O.numaNodes()) > 1 ) {
+      numaSplit(nodes);
+      return;                   // Not complete until all nodes' blocks complete
+    }
+    if( (_hi-_lo) > (_fr == null ? 1 : Math.max(_leaf,1)) ) { // Multi-chunk case: just divide-and-conquer to a leaf
       final int mid = (_lo+_hi)>>>1; // Mid-point
       _left = copyAndInit();
       _rite = copyAndInit();
@@ -586,7 +712,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       if(_profile!=null) _profile._mapdone = System.currentTimeMillis();
       return;                   // Not complete until the fork completes
     }
-    // Zero or 1 chunks, and further chunk might not be homed here
+    // A leaf: zero or 1 keys, or a run of chunks - not all of them homed here
     if( _fr==null ) {           // No Frame, so doing Keys?
       if( _keys == null ||     // Once-per-node mode
           _hi > _lo && _keys[_lo].home() ) {
@@ -596,66 +722,103 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         _res = self();        // Save results since called map() at least once!
         if(_profile!=null) _profile._closestart = System.currentTimeMillis();
       }
-    } else if( _hi > _lo ) {    // Frame, Single chunk?
+    } else if( _hi > _lo ) {    // Frame: a run of consecutive chunks
+      long start = System.nanoTime();
+      Vec vecs[] = _fr.vecs();
       Vec v0 = _fr.anyVec();
-      if( _run_local || v0.chunkKey(_lo).home() ) { // And chunk is homed here?
-        assert(_run_local || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
-
-        // Make decompression chunk headers for these chunks
-        Vec vecs[] = _fr.vecs();
-        Chunk bvs[] = new Chunk[vecs.length];
-        NewChunk [] appendableChunks = null;
-        for( int i=0; i<vecs.length; i++ )
-          if( vecs[i] != null ) {
-            assert _run_local || vecs[i].chunkKey(_lo).home()
-              : "Chunk="+_lo+" v0="+v0+", k="+v0.chunkKey(_lo)+"   v["+i+"]="+vecs[i]+", k="+vecs[i].chunkKey(_lo);
-            bvs[i] = vecs[i].chunkForChunkIdx(_lo);
-          }
-
-        if(_output_types != null) {
-          final VectorGroup vg = vecs[0].group();
-          _appendables = new AppendableVec[_output_types.length];
-          appendableChunks = new NewChunk[_output_types.length];
-          for(int i = 0; i < _appendables.length; ++i) {
-            _appendables[i] = new AppendableVec(vg.vecKey(_vid+i),_output_types[i]);
-            appendableChunks[i] = _appendables[i].chunkForChunkIdx(_lo);
-          }
-        }
-        // Call all the various map() calls that apply
-        if(_profile!=null)
-          _profile._userstart = System.currentTimeMillis();
-        if( _fr.vecs().length == 1 ) map(bvs[0]);
-        if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1]);
-        if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2]);
-        if( true                  )  map(bvs );
-        if( _output_types != null && _output_types.length == 1 ) { // convenience versions for cases with single output.
-          if( appendableChunks == null ) throw H2O.fail(); // Silence IdeaJ warnings
-          if( _fr.vecs().length == 1 ) map(bvs[0], appendableChunks[0]);
-          if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1],appendableChunks[0]);
-          //if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2],appendableChunks[0]);
-          //if( true                  )  map(bvs,    appendableChunks[0]);
-        }
-        if( _output_types != null && _output_types.length == 2) { // convenience versions for cases with 2 outputs (e.g split).
-          if( appendableChunks == null ) throw H2O.fail(); // Silence IdeaJ warnings
-          if( _fr.vecs().length == 1 ) map(bvs[0], appendableChunks[0],appendableChunks[1]);
-          //if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1],appendableChunks[0],appendableChunks[1]);
-          //if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2],appendableChunks[0],appendableChunks[1]);
-          if( true                  )  map(bvs,    appendableChunks[0],appendableChunks[1]);
-        }
-        map(bvs,appendableChunks);
-        _res = self();          // Save results since called map() at least once!
-        // Further D/K/V put any new vec results.
-        if(_profile!=null)
-          _profile._closestart = System.currentTimeMillis();
-        for( Chunk bv : bvs )  bv.close(_lo,_fs);
-        if( _output_types != null) for(NewChunk nch:appendableChunks)nch.close(_lo, _fs);
+      // Each map() still runs on a fresh copy, as when split into one task
+      // per chunk, and is reduced into this leaf; only the F/J task is saved.
+      T proto = _hi-_lo > 1 ? copyAndInit() : null;
+      int mapped = 0;
+      for( int cidx = _lo; cidx < _hi; cidx++ ) {
+        if( !_run_local && !v0.chunkKey(cidx).home() ) continue; // Chunk homed elsewhere
+        if( mapped++ == 0 ) { mapChunk(vecs, v0, cidx); continue; }
+        MRTask<T> m = proto.clone();
+        m._profile = null;
+        m.mapChunk(vecs, v0, cidx);
+        _res.reduce4(m._res);
       }
+      leafStats(getClass()).record(System.nanoTime()-start, _hi-_lo, mapped);
     }
     if(_profile!=null)
       _profile._mapdone = System.currentTimeMillis();
     tryComplete();
   }
 
+  // Hand each NUMA node's F/J pool a fixed block of the chunk indices, so
+  // the same chunks are mapped - and, as they are loaded or decompressed,
+  // allocated - on the same socket task after task.  Work is not stolen
+  // across pools; each block then splits into leaves as usual.
+  private void numaSplit( int nodes ) {
+    int n = _hi-_lo, k = Math.min(nodes, n);
+    MRTask<T>[] kids = new MRTask[k];
+    for( int i=0; i<k; i++ ) {
+      MRTask<T> x = kids[i] = copyAndInit();
+      x._lo = _lo + (int)((long)n*i/k);
+      x._hi = _lo + (int)((long)n*(i+1)/k);
+    }
+    _numa = kids;
+    addToPendingCount(k-1);     // Completed by the last block
+    for( int i=0; i<k; i++ ) H2O.submitTask(i, kids[i]);
+    if(_profile!=null) _profile._mapdone = System.currentTimeMillis();
+  }
+
+  // Map one Chunk index of the Frame
+  private void mapChunk( Vec vecs[], Vec v0, int cidx ) {
+    assert(_run_local || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
+
+    // Make decompression chunk headers for these chunks
+    Chunk bvs[] = new Chunk[vecs.length];
+    NewChunk [] appendableChunks = null;
+    for( int i=0; i<vecs.length; i++ )
+      if( vecs[i] != null ) {
+        assert _run_local || vecs[i].chunkKey(cidx).home()
+          : "Chunk="+cidx+" v0="+v0+", k="+v0.chunkKey(cidx)+"   v["+i+"]="+vecs[i]+", k="+vecs[i].chunkKey(cidx);
+        bvs[i] = vecs[i].chunkForChunkIdx(cidx);
+      }
+    // Pull the next Chunk back from swap while this one is mapped; skip the
+    // per-column lookups when nothing was swapped out at the last Cleaner pass
+    if( _prefetch && Cleaner.Histo.anyOnIce() ) Vec.prefetch(vecs, cidx+1);
+
+    if(_output_types != null) {
+      final VectorGroup vg = vecs[0].group();
+      _appendables = new AppendableVec[_output_types.length];
+      appendableChunks = new NewChunk[_output_types.length];
+      for(int i = 0; i < _appendables.length; ++i) {
+        _appendables[i] = new AppendableVec(vg.vecKey(_vid+i),_output_types[i]);
+        appendableChunks[i] = _appendables[i].chunkForChunkIdx(cidx);
+      }
+    }
+    // Call all the various map() calls that apply
+    if(_profile!=null)
+      _profile._userstart = System.currentTimeMillis();
+    if( _fr.vecs().length == 1 ) map(bvs[0]);
+    if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1]);
+    if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2]);
+    if( true                  )  map(bvs );
+    if( _output_types != null && _output_types.length == 1 ) { // convenience versions for cases with single output.
+      if( appendableChunks == null ) throw H2O.fail(); // Silence IdeaJ warnings
+      if( _fr.vecs().length == 1 ) map(bvs[0], appendableChunks[0]);
+      if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1],appendableChunks[0]);
+      //if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2],appendableChunks[0]);
+      //if( true                  )  map(bvs,    appendableChunks[0]);
+    }
+    if( _output_types != null && _output_types.length == 2) { // convenience versions for cases with 2 outputs (e.g split).
+      if( appendableChunks == null ) throw H2O.fail(); // Silence IdeaJ warnings
+      if( _fr.vecs().length == 1 ) map(bvs[0], appendableChunks[0],appendableChunks[1]);
+      //if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1],appendableChunks[0],appendableChunks[1]);
+      //if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2],appendableChunks[0],appendableChunks[1]);
+      if( true                  )  map(bvs,    appendableChunks[0],appendableChunks[1]);
+    }
+    map(bvs,appendableChunks);
+    _res = self();          // Save results since called map() at least once!
+    // Further D/K/V put any new vec results.
+    if(_profile!=null)
+      _profile._closestart = System.currentTimeMillis();
+    for( Chunk bv : bvs )  bv.close(cidx,_fs);
+    if( _output_types != null) for(NewChunk nch:appendableChunks)nch.close(cidx, _fs);
+  }
+
   /** OnCompletion - reduce the left and right into self.  Called internal by
    *  F/J.  Not expected to be user-called. */
   @Override public final void onCompletion( CountedCompleter caller ) {
@@ -665,6 +828,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // alive since each one may be holding large partial results.
     reduce2(_left); _left = null;
     reduce2(_rite); _rite = null;
+    if( _numa != null ) { for( MRTask<T> x : _numa ) reduce2(x); _numa = null; }
     if(_profile!=null) _profile._reducedone = System.currentTimeMillis();
     // Only on the top local call, have more completion work
     if( _topLocal ) postLocal0();
@@ -694,8 +858,13 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   private void postLocal0() {
     closeLocal();               // User's node-local cleanup
     if(_profile!=null) _profile._closeLocalDone = System.currentTimeMillis();
-    reduce3(_nleft);            // Reduce global results from neighbors.
-    reduce3(_nrite);
+    if( _nkids != null )        // Reduce global results from neighbors.
+      for( RPC<T> rpc : _nkids ) reduce3(rpc);
+    if( _remote != null ) {     // Remote results already folded as they came
+      if( _res == null ) _res = _remote;
+      else _res.reduce4(_remote);
+      _remote = null;
+    }
     if(_profile!=null) _profile._remoteBlkDone = System.currentTimeMillis();
     _fs.blockForPending();      // Block any pending user tasks
     if(_profile!=null) _profile._localBlkDone = System.currentTimeMillis();
@@ -724,6 +893,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // blocks.  Not much can be asserted there.
     if(_profile!=null)
       _profile.gather(mrt._profile, rpc.size_rez());
+    if( _pipeline_reduce ) return; // Already folded into _remote
     // Unlike reduce2, results are in mrt directly not mrt._res.
     if( mrt._nhi != -1L ) {     // Any results at all?
       if( _res == null ) _res = mrt;
@@ -763,8 +933,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     
     // Since blocking can throw (generally the same exception, again and again)
     // catch & ignore, keeping only the first one we already got.
-    RPC<T> nl = _nleft; if( nl != null ) try { nl.get(); } catch( Throwable ignore ) { } _nleft = null;
-    RPC<T> nr = _nrite; if( nr != null ) try { nr.get(); } catch( Throwable ignore ) { } _nrite = null;
+    RPC<T>[] nkids = _nkids;
+    if( nkids != null )
+      for( RPC<T> rpc : nkids ) if( rpc != null ) try { rpc.get(); } catch( Throwable ignore ) { }
+    _nkids = null;
     return true;
   }
 
@@ -774,7 +946,8 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     x._topGlobal = false;
     x.setCompleter(this); // Set completer, what used to be a final field
     x._topLocal = false;  // Not a top job
-    x._nleft = x._nrite = null;
+    x._nkids = null;
+    ((MRTask<T>)x)._remote = null;
     x. _left = x. _rite = null;
     x._fs = _fs;
     if( _profile!=null )  x._profile = new MRProfile(this);
@@ -1,6 +1,7 @@
 package water;
 
 import java.lang.management.*;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.management.Notification;
@@ -64,6 +65,60 @@ abstract public class MemoryManager {
   // before & after amounts and diff them.
   static final AtomicLong MEM_ALLOC = new AtomicLong();
 
+  // Off-heap tier: Chunk bytes parked outside the Java heap by the Cleaner,
+  // so the heap copies can be dropped without a disk write.  Accounted
+  // separately from the K/V cache; budget set by -offheap_mem (0 disables).
+  static final AtomicLong OFFHEAP_USED = new AtomicLong();
+  static long offHeapMax() { return (long)H2O.ARGS.offheap_mem<<20; }
+  public static long offHeapUsed() { return OFFHEAP_USED.get(); }
+
+  /** Allocate a direct buffer against the off-heap budget.
+   *  @return the buffer, or null if the budget is exhausted */
+  static ByteBuffer mallocOffHeap( int bytes ) {
+    final long max = offHeapMax();
+    while( true ) {
+      long used = OFFHEAP_USED.get();
+      if( used+bytes > max ) return null;
+      if( OFFHEAP_USED.compareAndSet(used,used+bytes) ) break;
+    }
+    try { return ByteBuffer.allocateDirect(bytes); }
+    catch( OutOfMemoryError e ) { // Hit -XX:MaxDirectMemorySize
+      OFFHEAP_USED.addAndGet(-bytes);
+      return null;
+    }
+  }
+  /** Return bytes to the off-heap budget; the buffer itself goes with the GC */
+  static void freeOffHeap( int bytes ) { OFFHEAP_USED.addAndGet(-bytes); }
+
+  // Per-kind breakdown of the K/V store, recomputed on every Cleaner histogram.
+  /** Kinds of K/V data, in breakdown order */
+  public static final String[] KV_KINDS = {"raw_chunks","chunks","frames","models","temp","other"};
+  static final int KV_RAW=0, KV_CHUNK=1, KV_FRAME=2, KV_MODEL=3, KV_TEMP=4, KV_OTHER=5;
+  static int kindOf( Value val ) {
+    Key k = val._key;
+    if( k.isChunkKey() ) return val.backend() == Value.ICE ? KV_CHUNK : KV_RAW; // Raw file chunks are backed by the file
+    if( k.isVec() || k._kb[0] == Key.GRP || val.isFrame() ) return KV_FRAME;
+    if( val.isModel() ) return KV_MODEL;
+    if( !k.user_allowed() || k.toString().startsWith("__") ) return KV_TEMP; // System and rapids-internal keys
+    return KV_OTHER;
+  }
+
+  /** Latest per-kind breakdown of this node's K/V store: for each of
+   *  {@link #KV_KINDS}, {bytes in heap, bytes persisted, bytes off-heap, number of Values}. */
+  public static long[][] kvBreakdown() {
+    Cleaner.Histo h = Cleaner.Histo.latest();
+    if( h == null || h._kcached == null ) return new long[4][KV_KINDS.length];
+    return new long[][]{h._kcached.clone(), h._kswapped.clone(), h._koffheap.clone(), h._kcount.clone()};
+  }
+  static String kvBreakdownString() {
+    long[][] b = kvBreakdown();
+    StringBuilder sb = new StringBuilder("K/V by kind (heap/swapped/offheap/count):");
+    for( int i=0; i<KV_KINDS.length; i++ )
+      sb.append(' ').append(KV_KINDS[i]).append('=').append(PrettyPrint.bytes(b[0][i])).append('/')
+        .append(PrettyPrint.bytes(b[1][i])).append('/').append(PrettyPrint.bytes(b[2][i])).append('/').append(b[3][i]);
+    return sb.toString();
+  }
+
   static void setMemGood() {
     if( CAN_ALLOC ) return;
     synchronized(_lock) { CAN_ALLOC = true; _lock.notifyAll(); }
@@ -137,7 +192,7 @@ abstract public class MemoryManager {
     }
 
     // No logging if under memory pressure: can deadlock the cleaner thread
-    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+(oom?" OOM!":" NO-OOM");
+    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+(offHeapMax()>0?", OFFHEAP:"+PrettyPrint.bytes(OFFHEAP_USED.get())+"/"+PrettyPrint.bytes(offHeapMax()):"")+(oom?" OOM!":" NO-OOM");
     if( CAN_ALLOC ) { if( oom ) Log.warn(s); else Log.debug(s); }
     else            System.err.println(s);
   }
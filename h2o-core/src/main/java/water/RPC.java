@@ -67,6 +67,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
 
   // Time we started this sucker up.  Controls re-send behavior.
   final long _started;
+  final long _startNs;          // For RPCStats round trip times
   long _retry;                  // When we should attempt a retry
 
   int _resendsCnt;
@@ -75,6 +76,10 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   // finally completes.  Frequently null/zero.
   ArrayList<H2OCountedCompleter> _fjtasks;
 
+  // Where this RPC was made, kept for slow-RPC traces when -rpc_trace_ms is
+  // set and this DTask class has been slow before; else null
+  final StackTraceElement[] _callStack;
+
   // We only send non-failing TCP info once; also if we used TCP it was large
   // so duplications are expensive.  However, we DO need to keep resending some
   // kind of "are you done yet?" UDP packet, incase the reply packet got dropped
@@ -82,6 +87,9 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   // Not volatile because read & written under lock.
   boolean _sentTcp;
 
+  // DeltaIced versions shipped with _dt (over all sends), confirmed on answer
+  final ArrayList<DeltaIced.Shipped> _deltas = new ArrayList<>();
+
   // To help with asserts, record the size of the sent DTask - if we resend
   // if should remain the same size.
   int _size;
@@ -116,6 +124,8 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
     _target = target;
     _dt = dtask;
     _started = System.currentTimeMillis();
+    _startNs = System.nanoTime();
+    _callStack = RPCStats.traceStack(dtask) ? Thread.currentThread().getStackTrace() : null;
     _retry = RETRY_MS;
   }
   RPC<V> setTaskNum() {
@@ -142,6 +152,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
             _done = true;
             RPC.this.notifyAll();
           }
+          RPCStats.roundTrip(RPC.this, H2O.SELF);
           doAllCompletions();
         }
         @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter dt) {
@@ -195,10 +206,13 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
       if( !_sentTcp ) {
         while( true ) {         // Retry loop for broken TCP sends
           AutoBuffer ab = new AutoBuffer(_target,_dt.priority());
+          ab._deltas = _deltas;
           try {
             final boolean t;
             ab.putTask(UDP.udp.exec, _tasknum).put1(CLIENT_UDP_SEND);
+            long t0 = System.nanoTime();
             ab.put(_dt);
+            RPCStats.serialized(_dt, System.nanoTime()-t0);
             t = ab.hasTCP();
             assert sz_check(ab) : "Resend of " + _dt.getClass() + " changes size from " + _size + " to " + ab.size() + " for task#" + _tasknum;
             ab.close();        // Then close; send final byte
@@ -274,6 +288,16 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   }
 
   // Done if target is dead or canceled, or we have a result.
+  // The remote could not rebuild a DeltaIced delta sent with this task, and
+  // dropped it: send the task again, with its DeltaIced objects in full.
+  synchronized void resendFull() {
+    if( _done || isCancelled() ) return;
+    DeltaIced.forget(_deltas);
+    _sentTcp = false;           // Resend the task itself, not just a reminder
+    _size = 0;                  // A different size than the last send
+    _nack = false;
+  }
+
   @Override public final boolean isDone() {  return _target==null || _done;  }
   // Done if target is dead or canceled
   @Override public final boolean isCancelled() { return _target==null; }
@@ -284,6 +308,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
       if( !isCancelled() ) {
         did = true;             // Did cancel (was not cancelled already)
         _target.taskRemove(_tasknum);
+        DeltaIced.abandon(_deltas);
         _target = null;         // Flag as canceled
 //        UDPTimeOutThread.PENDING.remove(this);
       }
@@ -312,6 +337,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
     final int _tsknum;
     long _started;              // Retry fields for the ackack
     long _retry;
+    final long _arrivedNs;      // For RPCStats queueing times
     int _ackResendCnt;
     int _nackResendCnt;
     volatile boolean _computedAndReplied; // One time transition from false to true
@@ -327,13 +353,15 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
       if( _dt == null ) _computedAndReplied = true; // Only for Golden Completed Tasks (see H2ONode.java)
       _started = System.currentTimeMillis(); // for nack timeout
       _retry = RETRY_MS >> 1; // half retry for sending nack
+      _arrivedNs = System.nanoTime();
     }
-    RPCCall(H2ONode client) { _client = client; _tsknum = 0; }
+    RPCCall(H2ONode client) { _client = client; _tsknum = 0; _arrivedNs = 0; }
 
     @Override
     public void compute2() {
       // First set self to be completed when this subtask completer
       assert _dt.getCompleter() == null;
+      RPCStats.queued(_dt, System.nanoTime()-_arrivedNs);
       _dt.setCompleter(this);
       // Run the remote task on this server...
       _dt.dinvoke(_client);
@@ -379,7 +407,9 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
           UDP.udp udp = dt.priority()==H2O.FETCH_ACK_PRIORITY ? UDP.udp.fetchack : UDP.udp.ack;
           ab = new AutoBuffer(_client,udp._prior).putTask(udp,_tsknum).put1(SERVER_UDP_SEND);
           assert ab.position() == 1+2+4+1;
+          long t0 = System.nanoTime();
           dt.write(ab);         // Write the DTask - could be very large write
+          RPCStats.serialized(dt, System.nanoTime()-t0);
           dt._repliedTcp = ab.hasTCP(); // Resends do not need to repeat TCP result
           ab.close();                   // Then close; send final byte
           _computedAndReplied = true;   // After the final handshake, set computed+replied bit
@@ -406,7 +436,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
     }
 
     final void send_nack() {
-      new AutoBuffer(_client,udp.nack._prior).putTask(udp.nack,_tsknum).close();
+      new AutoBuffer(_client,udp.nack._prior).putTask(udp.nack,_tsknum).put1(0).close();
       _retry += (_retry < MAX_TIMEOUT ) ? _retry : MAX_TIMEOUT;
     }
 
@@ -482,7 +512,9 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
       try {
         // Read the DTask Right Now.  If we are the TCPReceiver thread, then we
         // are reading in that thread... and thus TCP reads are single-threaded.
-        rpc = new RPCCall(ab.get(water.DTask.class),ab._h2o,task);
+        DTask dt = ab.get(water.DTask.class);
+        if( dt instanceof MRTask ) ((MRTask)dt)._broadcasts = ab._broadcasts;
+        rpc = new RPCCall(dt,ab._h2o,task);
       } catch( AutoBuffer.AutoBufferException e ) {
         // Here we assume it's a TCP fail on read - and ignore the remote_exec
         // request.  The caller will send it again.  NOTE: this case is
@@ -491,6 +523,12 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
         Log.info("Network congestion OR short-writer/long-reader: TCP "+e._ioe.getMessage()+",  AB="+ab+", ignoring partial send");
         ab.drainClose();
         return;
+      } catch( DeltaIced.MissingBase e ) {
+        // Ask for the task again with its DeltaIced objects in full
+        Log.info(e.getMessage()+", asking for task#"+task+" in full");
+        ab.drainClose();
+        new AutoBuffer(ab._h2o,udp.nack._prior).putTask(udp.nack,task).put1(1).close();
+        return;
       }
       RPCCall rpc2 = ab._h2o.record_task(rpc);
       if( rpc2==null ) {        // Atomically insert (to avoid double-work)
@@ -508,7 +546,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
       // re-offer the packet for repeated work.  Send back a NACK, letting the
       // client know we're Working On It
       assert !ab.hasTCP():"got tcp with existing task #, FROM " + ab._h2o.toString() + " AB: "   + UDP.printx16(lo,hi) + ", position = " + ab._bb.position();
-      ab.clearForWriting(udp.nack._prior).putTask(UDP.udp.nack.ordinal(), task);
+      ab.clearForWriting(udp.nack._prior).putTask(UDP.udp.nack.ordinal(), task).put1(0);
       // DROP PACKET
     } else {
       // This is an old re-send of the same thing we've answered to before.
@@ -599,7 +637,9 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
           if (!isCancelled())       // Can be canceled already (locally by MRTask while recieving remote answer)
             _dt.onAck();            // One time only execute (before sending ACKACK)
           _done = true;             // Only read one (of many) response packets
+          RPCStats.roundTrip(this, ab._h2o);
           ab._h2o.taskRemove(_tasknum); // Flag as task-completed, even if the result is null
+          DeltaIced.confirm(_deltas); // The remote has decoded everything we sent
           notifyAll();              // And notify in any case
         }
         if (!isCancelled())  // Can be canceled already
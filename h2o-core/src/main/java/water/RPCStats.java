@@ -0,0 +1,170 @@
+package water;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import water.nbhm.NonBlockingHashMap;
+import water.nbhm.NonBlockingHashSet;
+
+/** Per-node latency histograms for remote tasks, and traces of slow ones.
+ *  <p>
+ *  Three times are recorded, all in nanoseconds:
+ *  <ul>
+ *  <li>round trip: from making an {@link RPC} to installing its answer, per
+ *      DTask class and target node;</li>
+ *  <li>queueing: from a remote task's arrival to the start of its execution
+ *      in the F/J priority pool, per DTask class;</li>
+ *  <li>serialization: writing a task or its answer to the wire, per DTask
+ *      class.  Large tasks stream straight into the TCP socket, so this
+ *      includes their send time.</li>
+ *  </ul>
+ *  Histograms are lock-free, HDR-style: 8 linear sub-buckets per power of 2,
+ *  so quantiles are good to 12.5%.
+ *  <p>
+ *  With <code>-rpc_trace_ms</code> set, the last {@link #NTRACES} RPCs slower
+ *  than the threshold are kept.  Capturing a stack is costly, so only RPCs of
+ *  DTask classes that have already been slow once keep the stack of the
+ *  thread that made them; a class's first slow RPC is traced without one.  Reported through
+ *  <code>/3/WaterMeterRpc</code>. */
+public final class RPCStats {
+  public static final int NTRACES = 64;
+
+  /** Lock-free log-linear histogram of non-negative longs */
+  public static final class Histogram {
+    private static final int SUB = 3;           // log2 of sub-buckets per power of 2
+    private final AtomicLongArray _counts = new AtomicLongArray(64<<SUB);
+    private final AtomicLong _sum = new AtomicLong();
+    private final AtomicLong _max = new AtomicLong();
+
+    public void record( long v ) {
+      if( v < 0 ) v = 0;        // nanoTime is monotonic, but be safe
+      _counts.incrementAndGet(bucket(v));
+      _sum.addAndGet(v);
+      long m;
+      while( v > (m = _max.get()) && !_max.compareAndSet(m, v) ) ;
+    }
+
+    static int bucket( long v ) {
+      if( v < (1<<SUB) ) return (int)v;
+      int e = 63-Long.numberOfLeadingZeros(v);
+      return ((e-SUB+1)<<SUB) + (int)((v>>>(e-SUB)) & ((1<<SUB)-1));
+    }
+    // Smallest value in bucket idx
+    static long lower( int idx ) {
+      if( idx < (1<<SUB) ) return idx;
+      int e = (idx>>SUB)+SUB-1;
+      return ((1L<<SUB) + (idx & ((1<<SUB)-1))) << (e-SUB);
+    }
+
+    public long count() {
+      long n = 0;
+      for( int i = 0; i < _counts.length(); i++ ) n += _counts.get(i);
+      return n;
+    }
+    public long sum() { return _sum.get(); }
+    public long max() { return _max.get(); }
+
+    /** Values at the given quantiles (0..1), each the upper end of its bucket */
+    public long[] quantiles( double... qs ) {
+      long[] c = new long[_counts.length()];
+      long n = 0;
+      for( int i = 0; i < c.length; i++ ) n += (c[i] = _counts.get(i));
+      long max = _max.get();
+      long[] res = new long[qs.length];
+      for( int q = 0; q < qs.length; q++ ) {
+        long want = (long)Math.ceil(qs[q]*n), seen = 0;
+        int i = 0;
+        while( i < c.length-1 && (seen += c[i]) < want ) i++;
+        res[q] = n == 0 ? 0 : Math.min(max, lower(i+1)-1);
+      }
+      return res;
+    }
+  }
+
+  /** One histogram of {@link #histograms()} */
+  public static final class Latency {
+    public final String _kind;    // "round_trip", "queued" or "serialize"
+    public final String _task;    // DTask class
+    public final String _peer;    // Target node of round trips; null for other kinds
+    public final Histogram _histo;
+    Latency( String kind, String task, String peer, Histogram histo ) {
+      _kind = kind; _task = task; _peer = peer; _histo = histo;
+    }
+  }
+
+  /** A slow RPC */
+  public static final class Trace {
+    public final String _task, _peer;
+    public final long _started;   // Wall-clock msec
+    public final long _rtt;       // nanos
+    public final StackTraceElement[] _stack; // Where the RPC was made; empty if not captured
+    Trace( String task, String peer, long started, long rtt, StackTraceElement[] stack ) {
+      _task = task; _peer = peer; _started = started; _rtt = rtt;
+      _stack = stack == null ? new StackTraceElement[0] : stack;
+    }
+  }
+
+  private static final NonBlockingHashMap<Class,NonBlockingHashMap<H2ONode,Histogram>> RTT = new NonBlockingHashMap<>();
+  private static final NonBlockingHashMap<Class,Histogram> QUEUED = new NonBlockingHashMap<>();
+  private static final NonBlockingHashMap<Class,Histogram> SERIAL = new NonBlockingHashMap<>();
+  private static final Trace[] TRACES = new Trace[NTRACES];
+  private static final AtomicLong TRACE_CNT = new AtomicLong();
+  // DTask classes with an RPC over the trace threshold; their RPCs keep call stacks
+  private static final NonBlockingHashSet<Class> SLOW = new NonBlockingHashSet<>();
+
+  /** Should an RPC of dt keep the stack of the thread making it? */
+  static boolean traceStack( DTask dt ) {
+    return H2O.ARGS.rpc_trace_ms > 0 && SLOW.contains(dt.getClass());
+  }
+
+  private static <K> Histogram histo( NonBlockingHashMap<K,Histogram> m, K k ) {
+    Histogram h = m.get(k);
+    if( h == null ) { Histogram h2 = m.putIfAbsent(k, h = new Histogram()); if( h2 != null ) h = h2; }
+    return h;
+  }
+
+  /** rpc got its answer */
+  static void roundTrip( RPC rpc, H2ONode target ) {
+    long rtt = System.nanoTime() - rpc._startNs;
+    Class clz = rpc._dt.getClass();
+    NonBlockingHashMap<H2ONode,Histogram> m = RTT.get(clz);
+    if( m == null ) {
+      NonBlockingHashMap<H2ONode,Histogram> m2 = RTT.putIfAbsent(clz, m = new NonBlockingHashMap<>());
+      if( m2 != null ) m = m2;
+    }
+    histo(m, target).record(rtt);
+    if( H2O.ARGS.rpc_trace_ms > 0 && rtt >= H2O.ARGS.rpc_trace_ms*1000000L ) {
+      SLOW.add(clz);
+      Trace t = new Trace(clz.getName(), String.valueOf(target), rpc._started, rtt, rpc._callStack);
+      TRACES[(int)(TRACE_CNT.getAndIncrement() % NTRACES)] = t;
+    }
+  }
+  static void queued( DTask dt, long ns ) { histo(QUEUED, (Class)dt.getClass()).record(ns); }
+  static void serialized( DTask dt, long ns ) { histo(SERIAL, (Class)dt.getClass()).record(ns); }
+
+  /** Snapshot of this node's histograms */
+  public static ArrayList<Latency> histograms() {
+    ArrayList<Latency> res = new ArrayList<>();
+    for( Map.Entry<Class,NonBlockingHashMap<H2ONode,Histogram>> e : RTT.entrySet() )
+      for( Map.Entry<H2ONode,Histogram> p : e.getValue().entrySet() )
+        res.add(new Latency("round_trip", e.getKey().getName(), p.getKey().toString(), p.getValue()));
+    for( Map.Entry<Class,Histogram> e : QUEUED.entrySet() )
+      res.add(new Latency("queued", e.getKey().getName(), null, e.getValue()));
+    for( Map.Entry<Class,Histogram> e : SERIAL.entrySet() )
+      res.add(new Latency("serialize", e.getKey().getName(), null, e.getValue()));
+    return res;
+  }
+
+  /** This node's recent slow RPCs, oldest first */
+  public static ArrayList<Trace> traces() {
+    ArrayList<Trace> res = new ArrayList<>();
+    long n = TRACE_CNT.get();
+    for( long i = Math.max(0, n-NTRACES); i < n; i++ ) {
+      Trace t = TRACES[(int)(i % NTRACES)];
+      if( t != null ) res.add(t);
+    }
+    return res;
+  }
+}
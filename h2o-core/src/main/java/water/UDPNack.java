@@ -8,14 +8,17 @@ package water;
  */
 
 class UDPNack extends UDP {
-  // Received an ACK for a remote Task.  Ping the task.
+  // Received an ACK for a remote Task.  Ping the task.  A non-zero flag
+  // means the remote dropped the task instead, missing a DeltaIced base.
   private static long THEN;
   AutoBuffer call(AutoBuffer ab) {
     int tnum = ab.getTask();
+    boolean full = ab.get1() != 0;
     RPC<?> t = ab._h2o.taskGet(tnum);
     if( t != null ) {
       assert t._tasknum==tnum;
-      t._nack = true;
+      if( full ) t.resendFull();
+      else t._nack = true;
     }
     return ab;
   }
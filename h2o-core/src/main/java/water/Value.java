@@ -2,6 +2,7 @@ package water;
 
 import java.io.IOException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import jsr166y.ForkJoinPool;
 import water.fvec.Frame;
@@ -93,6 +94,37 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   private volatile Freezable _pojo;
   Freezable rawPOJO() { return _pojo; }
 
+  // ---
+  // An off-heap copy of the _mem bytes, made by the Cleaner when there is
+  // room in the MemoryManager off-heap budget.  Like a disk copy it is
+  // read-only and lets both heap forms be dropped; unlike a disk copy reload
+  // is a memcpy.  The budget is returned when the Value is removed or
+  // replaced, but the buffer stays readable for racing readers until GC.
+  // A removed or replaced Value never gets a new copy: the Cleaner may still
+  // visit it from a stale snapshot, and nothing would return that budget.
+  private volatile java.nio.ByteBuffer _offheap;
+  private boolean _offheapReleased; // Removed or replaced; guarded by this
+  final boolean isOffHeap() { return _offheap != null; }
+
+  /** Copy the byte[] form into the off-heap tier.
+   *  @return true if a live off-heap copy exists */
+  synchronized boolean moveOffHeap() {
+    if( _offheapReleased ) return false;
+    if( _offheap != null ) return true;
+    byte[] mem = _mem;          // Read once!
+    if( mem == null ) return false;
+    java.nio.ByteBuffer bb = MemoryManager.mallocOffHeap(mem.length);
+    if( bb == null ) return false;
+    bb.put(mem).flip();
+    _offheap = bb;
+    return true;
+  }
+  synchronized void releaseOffHeap() {
+    if( _offheapReleased ) return;
+    _offheapReleased = true;    // Even with no copy yet: none may be made now
+    if( _offheap != null ) MemoryManager.freeOffHeap(_offheap.capacity());
+  }
+
   /** Invalidate byte[] cache.  Only used to eagerly free memory, for data
    *  which is expected to be read-once. */
   public final void freeMem() {
@@ -102,7 +134,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   /** Invalidate POJO cache.  Only used to eagerly free memory, for data
    *  which is expected to be read-once. */
   public final void freePOJO() {
-    assert isPersisted() || _mem != null;
+    assert isPersisted() || _mem != null || _offheap != null;
     _pojo = null;
   }
 
@@ -116,11 +148,25 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     if( pojo != null )          // Has the POJO, make raw bytes
       _mem = pojo.asBytes();
     if( _max == 0 ) return (_mem = new byte[0]);
+    java.nio.ByteBuffer oh = _offheap; // Read once!
+    MISSES.incrementAndGet();   // Not in the heap: reload
+    if( oh != null ) {          // Reload from the off-heap tier
+      byte[] b = MemoryManager.malloc1(oh.capacity());
+      oh.duplicate().get(b);
+      return (_mem = b);
+    }
     return (_mem = loadPersist());
   }
+  // Reloads of swapped-out Values, from off-heap or disk; the hit path is
+  // left uncounted, as it runs on every DKV get
+  private static final AtomicLong MISSES = new AtomicLong();
+  static long misses() { return MISSES.get(); }
+  /** True if the Value has a persisted or off-heap copy, but neither heap form
+   *  is loaded; i.e. the next access will reload it. */
+  public final boolean isSwappedOut() { return _mem == null && _pojo == null && _max > 0 && (isPersisted() || _offheap != null); }
   // Just an empty shell of a Value, no local data but the Value is "real".
   // Any attempt to look at the Value will require a remote fetch.
-  final boolean isEmpty() { return _max > 0 && _mem==null && _pojo == null && !isPersisted(); }
+  final boolean isEmpty() { return _max > 0 && _mem==null && _pojo == null && _offheap == null && !isPersisted(); }
 
   /** The FAST path get-POJO as an {@link Iced} subclass - final method for
    *  speed.  Will (re)build the POJO from the _mem array.  Never returns NULL.
@@ -156,7 +202,27 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   // ---
   // Time of last access to this value.
   transient long _lastAccessedTime = System.currentTimeMillis();
-  private void touch() {_lastAccessedTime = System.currentTimeMillis();}
+  // Approximate access count; racy increments.  Halved once per
+  // ACCESS_DECAY_MS elapsed since _accessDecayTime, so old use fades away.
+  transient int _accessCnt;
+  transient long _accessDecayTime = _lastAccessedTime;
+  static final long ACCESS_DECAY_MS = 10*1000;
+  // Access count as of time now, with the decay due since _accessDecayTime
+  int accessCount(long now) {
+    long halvings = (now - _accessDecayTime)/ACCESS_DECAY_MS;
+    if( halvings <= 0 ) return _accessCnt;
+    return halvings >= 32 ? 0 : _accessCnt >>> halvings;
+  }
+  private void touch() {
+    long now = System.currentTimeMillis();
+    long halvings = (now - _accessDecayTime)/ACCESS_DECAY_MS;
+    if( halvings > 0 ) {        // Fold the decay due so far into the count
+      _accessCnt = accessCount(now);
+      _accessDecayTime += halvings*ACCESS_DECAY_MS;
+    }
+    _accessCnt++;
+    _lastAccessedTime = now;
+  }
   // Exposed and used for testing only; used to trigger premature cleaning/disk-swapping
   void touchAt(long time) {_lastAccessedTime = time;}
 
@@ -187,6 +253,11 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   /** Check if the backing byte[] has been saved-to-disk */
   public final boolean isPersisted() { return (_persist&ON_dsk)!=0; }
   public final void setDsk() { _persist |=  ON_dsk; } // note: not atomic, but only monotonically set bit
+  // Codec of the persisted bytes, set by the Persist layer when it compresses
+  // a Value on the way out (one of Persist.CODEC_*).  Node-local, not serialized.
+  private volatile byte _codec;
+  public final byte codec() { return _codec; }
+  public final void setCodec(byte codec) { _codec = codec; }
   private volatile byte _deleted; // 1 bit of deleted
   public final boolean isDeleted() { return _deleted != 0; }
   public final void setDel() { _deleted=1; } // note: not atomic, but only monotonically set bit
@@ -216,6 +287,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   public void removePersist() {
     // do not yank memory, as we could have a racing get hold on to this
     //  free_mem();
+    releaseOffHeap();
     // 00 -> 01 try to delete (racing, probably nothing to delete)
     // 01       double delete; do nothing
     // 10 -> 11 delete
@@ -343,7 +415,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   // and the normal serializer then might ship over a null instead of the
   // intended byte[].  Also, the value is NOT on the deserialize'd machines disk
   public final AutoBuffer write_impl( AutoBuffer ab ) {
-    return ab.put1(_persist).put2(_type).putA1(memOrLoad());
+    return ab.put1(_persist).put2(_type).putA1Z(memOrLoad());
   }
   // Custom serializer: set _max from _mem length; set replicas & timestamp.
   public final Value read_impl(AutoBuffer bb) {
@@ -351,7 +423,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     // Set persistence backend but... strip off saved-to-disk bit
     _persist = (byte)(bb.get1()&BACKEND_MASK); 
     _type = (short) bb.get2();
-    _mem = bb.getA1();
+    _mem = bb.getA1Z();
     _max = _mem.length;
     assert _max < MAX : "Value size=0x"+Integer.toHexString(_max)+" during read is larger than "+Integer.toHexString(MAX)+", type: "+TypeMap.className(_type);
     _pojo = null;
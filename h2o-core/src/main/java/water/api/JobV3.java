@@ -71,6 +71,7 @@ public class JobV3 extends RequestSchema<Job, JobV3> {
     // Notice new state "CANCEL_PENDING".
     if( job.isRunning() )
       if( job.stop_requested() ) status = "CANCEL_PENDING";
+      else if( job.isQueued() ) status = "QUEUED"; // Waiting on memory admission
       else status = "RUNNING";
     else
       if( job.stop_requested() ) status = "CANCELLED";
@@ -234,6 +234,14 @@ public class RequestServer extends NanoHTTPD {
             "Return IO usage snapshot of all nodes in the H2O cluster.");
     register("/3/WaterMeterIo"                                            ,"GET"   ,WaterMeterIoHandler.class, "fetch_all", null,
             "Return IO usage snapshot of all nodes in the H2O cluster.");
+    register("/3/WaterMeterMemory/(?<nodeidx>.*)"                         ,"GET"   ,WaterMeterMemoryHandler.class, "fetch", null,
+            "Return a per-kind breakdown of K/V store memory on one node of the H2O cluster.");
+    register("/3/WaterMeterMemory"                                        ,"GET"   ,WaterMeterMemoryHandler.class, "fetch_all", null,
+            "Return a per-kind breakdown of K/V store memory on all nodes of the H2O cluster.");
+    register("/3/WaterMeterRpc/(?<nodeidx>.*)"                            ,"GET"   ,WaterMeterRpcHandler.class, "fetch", null,
+            "Return remote task latency histograms and slow task traces of one node of the H2O cluster.");
+    register("/3/WaterMeterRpc"                                           ,"GET"   ,WaterMeterRpcHandler.class, "fetch_all", null,
+            "Return remote task latency histograms and slow task traces of all nodes of the H2O cluster.");
 
     // Node persistent storage
     register("/3/NodePersistentStorage/categories/(?<category>.*)/names/(?<name>.*)/exists", "GET", NodePersistentStorageHandler.class, "exists", null, "Return true or false.");
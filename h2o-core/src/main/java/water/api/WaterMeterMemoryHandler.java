@@ -0,0 +1,19 @@
+package water.api;
+
+import water.util.WaterMeterMemory;
+
+public class WaterMeterMemoryHandler extends Handler {
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public WaterMeterMemoryV3 fetch(int version, WaterMeterMemoryV3 s) {
+    WaterMeterMemory impl = s.createAndFillImpl();
+    impl.doIt(false);
+    return s.fillFromImpl(impl);
+  }
+
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public WaterMeterMemoryV3 fetch_all(int version, WaterMeterMemoryV3 s) {
+    WaterMeterMemory impl = s.createAndFillImpl();
+    impl.doIt(true);
+    return s.fillFromImpl(impl);
+  }
+}
@@ -0,0 +1,25 @@
+package water.api;
+
+import water.util.PojoUtils;
+import water.util.WaterMeterMemory;
+
+public class WaterMeterMemoryV3 extends RequestSchema<WaterMeterMemory, WaterMeterMemoryV3> {
+  @API(help="Index of node to query memory for (0-based)", direction = API.Direction.INPUT)
+  public int nodeidx;
+
+  @API(help="array of per-node memory breakdowns", direction = API.Direction.OUTPUT)
+  public WaterMeterMemory.NodeMemoryEntry nodes[];
+
+  // Version&Schema-specific filling into the implementation object
+  public WaterMeterMemory createImpl() {
+    WaterMeterMemory obj = new WaterMeterMemory();
+    PojoUtils.copyProperties(obj, this, PojoUtils.FieldNaming.CONSISTENT);
+    return obj;
+  }
+
+  // Version&Schema-specific filling from the implementation object
+  public WaterMeterMemoryV3 fillFromImpl(WaterMeterMemory i) {
+    PojoUtils.copyProperties(this, i, PojoUtils.FieldNaming.CONSISTENT);
+    return this;
+  }
+}
@@ -0,0 +1,19 @@
+package water.api;
+
+import water.util.WaterMeterRpc;
+
+public class WaterMeterRpcHandler extends Handler {
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public WaterMeterRpcV3 fetch(int version, WaterMeterRpcV3 s) {
+    WaterMeterRpc impl = s.createAndFillImpl();
+    impl.doIt(false);
+    return s.fillFromImpl(impl);
+  }
+
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public WaterMeterRpcV3 fetch_all(int version, WaterMeterRpcV3 s) {
+    WaterMeterRpc impl = s.createAndFillImpl();
+    impl.doIt(true);
+    return s.fillFromImpl(impl);
+  }
+}
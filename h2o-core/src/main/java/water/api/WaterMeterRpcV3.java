@@ -0,0 +1,28 @@
+package water.api;
+
+import water.util.PojoUtils;
+import water.util.WaterMeterRpc;
+
+public class WaterMeterRpcV3 extends RequestSchema<WaterMeterRpc, WaterMeterRpcV3> {
+  @API(help="Index of node to query remote task latencies for (0-based)", direction = API.Direction.INPUT)
+  public int nodeidx;
+
+  @API(help="Latency histograms of remote tasks, per node, kind, task class and peer", direction = API.Direction.OUTPUT)
+  public WaterMeterRpc.LatencyEntry latencies[];
+
+  @API(help="Recent remote tasks slower than -rpc_trace_ms, with the stacks that made them", direction = API.Direction.OUTPUT)
+  public WaterMeterRpc.TraceEntry slow_traces[];
+
+  // Version&Schema-specific filling into the implementation object
+  public WaterMeterRpc createImpl() {
+    WaterMeterRpc obj = new WaterMeterRpc();
+    PojoUtils.copyProperties(obj, this, PojoUtils.FieldNaming.CONSISTENT);
+    return obj;
+  }
+
+  // Version&Schema-specific filling from the implementation object
+  public WaterMeterRpcV3 fillFromImpl(WaterMeterRpc i) {
+    PojoUtils.copyProperties(this, i, PojoUtils.FieldNaming.CONSISTENT);
+    return this;
+  }
+}
@@ -113,4 +113,13 @@ public class C0DChunk extends Chunk {
     return vals;
   }
 
+  @Override
+  public int [] getIntegers(int [] vals, int from, int to, int NA){
+    int con = (int)_con;
+    if( Double.isNaN(_con) ) con = NA;
+    else if( con != _con ) throw new IllegalArgumentException("Calling getIntegers on non-integer column");
+    Arrays.fill(vals, 0, to - from, con);
+    return vals;
+  }
+
 }
@@ -87,4 +87,11 @@ public class C0LChunk extends Chunk {
     for(int i:ids) vals[j++] = _con;
     return vals;
   }
+
+  @Override
+  public int [] getIntegers(int [] vals, int from, int to, int NA){
+    if( (int)_con != _con ) throw new IllegalArgumentException("Calling getIntegers on a column out of int range");
+    Arrays.fill(vals, 0, to - from, (int)_con);
+    return vals;
+  }
 }
@@ -45,4 +45,33 @@ public class C4FChunk extends Chunk {
     assert _mem.length == _len <<2;
   }
   @Override public boolean hasFloat() {return true;}
+
+  /**
+   * Dense bulk interface, fetch values from the given range
+   * @param vals
+   * @param from
+   * @param to
+   */
+  @Override
+  public double [] getDoubles(double [] vals, int from, int to, double NA){
+    for(int i = from; i < to; ++i) {
+      float res = UnsafeUtils.get4f(_mem, i << 2);
+      vals[i - from] = Float.isNaN(res)?NA:res;
+    }
+    return vals;
+  }
+  /**
+   * Dense bulk interface, fetch values from the given ids
+   * @param vals
+   * @param ids
+   */
+  @Override
+  public double [] getDoubles(double [] vals, int [] ids){
+    int j = 0;
+    for(int i:ids) {
+      float res = UnsafeUtils.get4f(_mem, i << 2);
+      vals[j++] = Float.isNaN(res)?Double.NaN:res;
+    }
+    return vals;
+  }
 }
@@ -90,4 +90,20 @@ public class C4SChunk extends Chunk {
     }
     return vals;
   }
+
+  @Override
+  public int [] getIntegers(int [] vals, int from, int to, int NA){
+    if( hasFloat() ) return super.getIntegers(vals,from,to,NA); // Throws on the first fraction
+    final long scale = (long)_scale;
+    for(int i = from; i < to; ++i) {
+      long res = UnsafeUtils.get4(_mem,(i<<2)+_OFF);
+      if( res == C4Chunk._NA ) vals[i-from] = NA;
+      else {
+        long l = (res + _bias)*scale;
+        if( (int)l != l ) throw new IllegalArgumentException("Calling getIntegers on a column out of int range");
+        vals[i-from] = (int)l;
+      }
+    }
+    return vals;
+  }
 }
@@ -69,4 +69,17 @@ public class C8Chunk extends Chunk {
     return vals;
   }
 
+  @Override
+  public int [] getIntegers(int [] vals, int from, int to, int NA){
+    for(int i = from; i < to; ++i) {
+      long res = UnsafeUtils.get8(_mem, i << 3);
+      if( res == _NA ) vals[i - from] = NA;
+      else {
+        if( (int)res != res ) throw new IllegalArgumentException("Calling getIntegers on a column out of int range");
+        vals[i - from] = (int)res;
+      }
+    }
+    return vals;
+  }
+
 }
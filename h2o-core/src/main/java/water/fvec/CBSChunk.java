@@ -116,9 +116,30 @@ public class CBSChunk extends Chunk {
    */
   @Override
   public double[] getDoubles(double [] vals, int from, int to, double NA){
-    for(int i = from; i < to; ++i) {
-      byte b = atb(i);
-      vals[i - from] = b == _NA ? NA : b;
+    final byte [] mem = _mem;
+    if( _bpv == 1 ) {           // No NAs
+      for(int i = from; i < to; ++i)
+        vals[i - from] = (mem[_OFF + (i >> 3)] >> (7 - (i & 7))) & 0x1;
+    } else {
+      for(int i = from; i < to; ++i) {
+        int b = (mem[_OFF + (i >> 2)] >> (6 - ((i & 3) << 1))) & 0x3;
+        vals[i - from] = b == _NA ? NA : b;
+      }
+    }
+    return vals;
+  }
+
+  @Override
+  public int [] getIntegers(int [] vals, int from, int to, int NA){
+    final byte [] mem = _mem;
+    if( _bpv == 1 ) {
+      for(int i = from; i < to; ++i)
+        vals[i - from] = (mem[_OFF + (i >> 3)] >> (7 - (i & 7))) & 0x1;
+    } else {
+      for(int i = from; i < to; ++i) {
+        int b = (mem[_OFF + (i >> 2)] >> (6 - ((i & 3) << 1))) & 0x3;
+        vals[i - from] = b == _NA ? NA : b;
+      }
     }
     return vals;
   }
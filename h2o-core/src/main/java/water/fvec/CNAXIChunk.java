@@ -34,6 +34,9 @@ public class CNAXIChunk extends CXIChunk {
     return _sparseLen;
   }
 
+  // Only non-missing values are stored
+  @Override protected double getDValue(int off, double NA){ return getIValue(off); }
+
   @Override protected long at8_impl(int idx) {
     int off = findOffset(idx);
     if(getId(off) != idx) throw new IllegalArgumentException("at8_abs but value is missing");
@@ -14,6 +14,7 @@ public final class CX0Chunk extends CXIChunk {
   @Override protected final long at8_impl(int idx) {return getId(findOffset(idx)) == idx?1:0;}
   @Override protected final double atd_impl(int idx) { return at8_impl(idx); }
   @Override protected final boolean isNA_impl( int i ) { return false; }
+  @Override protected double getDValue(int off, double NA) { return 1; }
   @Override double min() { return 0; }
   @Override double max() { return 1; }
   @Override public boolean hasNA() { return false; }
@@ -53,6 +53,11 @@ public class CXDChunk extends CXIChunk {
     return _sparseLen;
   }
 
+  @Override protected double getDValue(int off, double NA){
+    double d = getFValue(off);
+    return Double.isNaN(d)?NA:d;
+  }
+
   @Override protected long at8_impl(int idx) {
     int off = findOffset(idx);
     if(getId(off) != idx)return 0;
@@ -37,24 +37,46 @@ public class CXIChunk extends Chunk {
     assert (_mem.length - _OFF) % (_valsz+_ridsz) == 0:"unexpected mem buffer length: mem.length = " + _mem.length + ", off = " + _OFF + ", valSz = " + _valsz + "ridsz = " + _ridsz;
   }
 
+  // Scatter the stored values in [from,to) over a pre-filled dense array, in
+  // one pass over the compressed bytes.
   @Override public double [] getDoubles(double [] vals,int from, int to, double NA){
-    double fill = isSparseNA()?NA:0;
-    if(from == 0 && to == _len) {
-      Arrays.fill(vals,fill);
-      double [] svals = new double[_sparseLen];
-      int [] sids = new int[_sparseLen];
-      asSparseDoubles(svals,sids, NA);
-      for(int i = 0; i < sids.length && sids[i] < to; ++i)
-        vals[sids[i]] = svals[i];
-    } else {
-      for(int i = from; i < to; ++i)
-        vals[i-from] = fill;
-      for(int i= nextNZ(from-1); i < to; i = nextNZ(i))
-        vals[i-from] = atd(i);
+    Arrays.fill(vals,0,to-from,isSparseNA()?NA:0);
+    if(_sparseLen == 0 || from >= to) return vals;
+    final int inc = _valsz + _ridsz;
+    for(int off = from == 0?_OFF:findOffset(from); off < _mem.length; off += inc) {
+      int id = getId(off);
+      if(id < from) continue;
+      if(id >= to) break;
+      vals[id-from] = getDValue(off,NA);
     }
     return vals;
   }
 
+  @Override public int [] getIntegers(int [] vals, int from, int to, int NA){
+    if(hasFloat()) return super.getIntegers(vals,from,to,NA);
+    Arrays.fill(vals,0,to-from,isSparseNA()?NA:0);
+    if(_sparseLen == 0 || from >= to) return vals;
+    final int inc = _valsz + _ridsz;
+    for(int off = from == 0?_OFF:findOffset(from); off < _mem.length; off += inc) {
+      int id = getId(off);
+      if(id < from) continue;
+      if(id >= to) break;
+      double d = getDValue(off,Double.NaN);
+      if(Double.isNaN(d)) vals[id-from] = NA;
+      else {
+        if((int)d != d) throw new IllegalArgumentException("Calling getIntegers on a column out of int range");
+        vals[id-from] = (int)d;
+      }
+    }
+    return vals;
+  }
+
+  // Stored value at a byte offset, with missing values mapped to NA
+  protected double getDValue(int off, double NA){
+    long v = getIValue(off);
+    return v == NAS[_valsz_log]?NA:v;
+  }
+
   @Override public NewChunk inflate_impl(NewChunk nc) {
     nc.alloc_nums(_sparseLen);
     nc.alloc_indices(_sparseLen);
@@ -104,7 +126,7 @@ public class CXIChunk extends Chunk {
           for (int i = 0; i < _sparseLen; ++i, off += inc) {
             ids[i] = UnsafeUtils.get2(_mem,off) & 0xFFFF;
             long v = UnsafeUtils.get8(_mem,off+2);
-            vals[i] = v == C8Chunk._NA?Double.NaN:v;
+            vals[i] = v == C8Chunk._NA?NA:v;
           }
           break;
       }
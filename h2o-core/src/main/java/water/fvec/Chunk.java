@@ -144,14 +144,20 @@ public abstract class Chunk extends Iced<Chunk> {
     return vals;
   }
 
+  /**
+   * Dense bulk interface, fetch integer values from the given range
+   * @param vals holds extracted values, vals[0] is row from
+   * @param NA value stored for missing rows
+   * @throws IllegalArgumentException if a value is not an integer
+   */
   public int [] getIntegers(int [] vals, int from, int to, int NA){
     for(int i = from; i < to; ++i) {
       double d = atd(i);
       if(Double.isNaN(d))
-        vals[i] = NA;
+        vals[i - from] = NA;
       else {
-        vals[i] = (int)d;
-        if(vals[i] != d) throw new IllegalArgumentException("Calling getIntegers on non-integer column");
+        vals[i - from] = (int)d;
+        if(vals[i - from] != d) throw new IllegalArgumentException("Calling getIntegers on non-integer column");
       }
     }
     return vals;
@@ -240,6 +240,14 @@ public class Frame extends Lockable<Frame> {
    */
   public Key[] keys() { return _keys; }
 
+  /** Keep this Frame's Chunks in memory on every node until the given Job
+   *  calls {@link #unpin} or completes; see {@link Vec#pin}.
+   *  @return this Frame */
+  public Frame pin( Key<Job> job ) { Vec.pin(_keys, job); return this; }
+  /** Drop the given Job's pins on this Frame's Chunks.
+   *  @return this Frame */
+  public Frame unpin( Key<Job> job ) { Vec.unpin(_keys, job); return this; }
+
   /** The internal array of Vecs.  For efficiency Frames contain an array of
    *  Vec Keys - and the Vecs themselves are lazily loaded from the {@link DKV}.
    *  @return the internal array of Vecs */
@@ -2,6 +2,7 @@ package water.fvec;
 
 import water.*;
 import water.nbhm.NonBlockingHashMap;
+import water.nbhm.NonBlockingHashSet;
 import water.parser.BufferedString;
 import water.util.*;
 
@@ -907,6 +908,99 @@ public class Vec extends Keyed<Vec> {
    *  @return Chunk for a row# */
   public final Chunk chunkForRow(long i) { return chunkForChunkIdx(elem2ChunkIdx(i)); }
 
+  // ======= Pinning and prefetch ======
+  // Vecs whose Chunks the Cleaner must not evict, by Vec Key, mapped to the
+  // Jobs holding pins on them; a Vec stays pinned until the last of its Jobs
+  // lets go.  Node-local copy of a cluster-wide set.
+  private static final NonBlockingHashMap<Key,Key[]> PINNED = new NonBlockingHashMap<>();
+  // Vecs pinned from this node, by Job; the Job's completion drops the rest
+  private static final NonBlockingHashMap<Key,NonBlockingHashSet<Key>> PINNERS = new NonBlockingHashMap<>();
+
+  /** Keep this Vec's Chunks in memory on every node until the given Job
+   *  calls {@link #unpin} or completes.  Meant for iterative algorithms that
+   *  rescan the same data many times. */
+  public void pin( Key<Job> job ) { pin(new Key[]{_key}, job); }
+  /** Drop the given Job's pin; the Chunks stay pinned while other Jobs hold
+   *  pins on this Vec. */
+  public void unpin( Key<Job> job ) { unpin(new Key[]{_key}, job); }
+
+  static void pin( Key[] vecKeys, Key<Job> job ) {
+    NonBlockingHashSet<Key> mine = PINNERS.get(job);
+    if( mine == null ) {
+      NonBlockingHashSet<Key> s = new NonBlockingHashSet<>();
+      mine = PINNERS.putIfAbsent(job, s);
+      if( mine == null ) mine = s;
+    }
+    mine.addAll(Arrays.asList(vecKeys));
+    new PinTask(vecKeys, job, true).doAllNodes();
+  }
+  static void unpin( Key[] vecKeys, Key<Job> job ) {
+    NonBlockingHashSet<Key> mine = PINNERS.get(job);
+    if( mine != null ) {
+      mine.removeAll(Arrays.asList(vecKeys));
+      if( mine.isEmpty() ) PINNERS.remove(job, mine);
+    }
+    new PinTask(vecKeys, job, false).doAllNodes();
+  }
+
+  /** Drop whatever pins the given Job still holds.  Called when the Job
+   *  completes; a no-op unless the Job pinned Vecs from this node. */
+  public static void unpinAll( Key<Job> job ) {
+    NonBlockingHashSet<Key> mine = PINNERS.remove(job);
+    if( mine != null && !mine.isEmpty() )
+      new PinTask(mine.toArray(new Key[0]), job, false).doAllNodes();
+  }
+
+  private static class PinTask extends MRTask<PinTask> {
+    final Key[] _vecKeys; final Key<Job> _job; final boolean _pin;
+    PinTask( Key[] vecKeys, Key<Job> job, boolean pin ) { _vecKeys = vecKeys; _job = job; _pin = pin; }
+    @Override protected void setupLocal() {
+      synchronized( PINNED ) {  // Rare; keeps the read-modify-writes simple
+        for( Key k : _vecKeys ) update(k);
+      }
+    }
+    private void update( Key k ) {
+      Key[] jobs = PINNED.get(k);
+      int i = jobs == null ? -1 : ArrayUtils.find(jobs, _job);
+      if( _pin ) {
+        if( i == -1 ) PINNED.put(k, jobs == null ? new Key[]{_job} : ArrayUtils.append(jobs, _job));
+      } else if( i != -1 ) {
+        if( jobs.length == 1 ) PINNED.remove(k);
+        else PINNED.put(k, ArrayUtils.remove(jobs, i));
+      }
+    }
+  }
+
+  /** Is the Chunk with this Key part of a pinned Vec?  Cheap when nothing is pinned. */
+  public static boolean isPinnedChunk( Key chk_key ) {
+    return !PINNED.isEmpty() && chk_key.isChunkKey() && PINNED.containsKey(getVecKey(chk_key));
+  }
+
+  /** Asynchronously pull Chunk cidx of the given Vecs back into the heap if
+   *  it is homed here and was swapped out, so the next map() finds it in
+   *  memory.  A no-op when all the Chunks are already loaded. */
+  public static void prefetch( Vec[] vecs, int cidx ) {
+    Value[] vals = null;
+    int n = 0;
+    for( Vec v : vecs ) {
+      if( v == null || cidx >= v.nChunks() ) continue;
+      Key k = v.chunkKey(cidx);
+      if( !k.home() ) continue;
+      Value val = Value.STORE_get(k);
+      if( val == null || !val.isSwappedOut() ) continue;
+      if( vals == null ) vals = new Value[vecs.length];
+      vals[n++] = val;
+    }
+    if( n == 0 ) return;
+    final Value[] fvals = vals;
+    H2O.submitTask(new H2O.H2OCountedCompleter() {
+      @Override public void compute2() {
+        for( Value val : fvals ) if( val != null ) val.memOrLoad();
+        tryComplete();
+      }
+    });
+  }
+
   // ======= Direct Data Accessors ======
 
   /** Fetch element the slow way, as a long.  Floating point values are
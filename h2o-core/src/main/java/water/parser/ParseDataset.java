@@ -163,6 +163,7 @@ public final class ParseDataset {
     new Frame(pds._job._result,new String[0],new Vec[0]).delete_and_lock(pds._job); // Write-Lock BEFORE returning
     for( Key k : keys ) Lockable.read_lock(k,pds._job); // Read-Lock BEFORE returning
     ParserFJTask fjt = new ParserFJTask(pds, keys, setup, deleteOnDone); // Fire off background parse
+    pds._job._mem_estimate = totalParseSize; // Raw bytes in flight plus the compressed result
     pds._job.start(fjt, totalParseSize);
     return pds;
   }
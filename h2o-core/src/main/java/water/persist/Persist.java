@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 
 import water.*;
+import water.util.LZ4;
 import water.util.Log;
 
 /** Abstract class describing various persistence targets.
@@ -50,6 +51,31 @@ public abstract class Persist {
 
   abstract public void importFiles(String path, ArrayList<String> files, ArrayList<String> keys, ArrayList<String> fails, ArrayList<String> dels);
 
+  /** Codec tags for persisted bytes, see {@link Value#codec()} */
+  public static final byte CODEC_NONE = 0;
+  public static final byte CODEC_LZ4  = 1;
+
+  // Bytes to write out for Value v.  With -ice_compress, ICE values are
+  // LZ4-compressed when that saves at least 1/8th, and v is tagged with the
+  // codec used so load can reverse it.
+  static byte[] encode(Value v, byte[] m) {
+    byte codec = CODEC_NONE;
+    if( H2O.ARGS.ice_compress && m.length >= 1024 ) {
+      byte[] c = LZ4.compress(m);
+      if( c.length < m.length - (m.length>>3) ) { m = c; codec = CODEC_LZ4; }
+    }
+    v.setCodec(codec);
+    return m;
+  }
+
+  // Reverse of encode: the original v._max bytes
+  static byte[] decode(Value v, byte[] b) {
+    if( b == null || v.codec() == CODEC_NONE ) return b;
+    byte[] m = MemoryManager.malloc1(v._max);
+    LZ4.decompress(b, 0, b.length, m, 0, v._max);
+    return m;
+  }
+
   // The filename can be either byte encoded if it starts with % followed by
   // a number, or is a normal key name with special characters encoded in
   // special ways.
@@ -42,16 +42,18 @@ final class PersistFS extends Persist {
 
   @Override public byte[] load(Value v) throws IOException {
     File f = getFile(v);
-    if( f.length() < v._max ) { // Should be fully on disk...
+    boolean packed = v.codec() != CODEC_NONE;
+    long flen = f.length();
+    if( packed ? flen == 0 : flen < v._max ) { // Should be fully on disk...
       // or it's a racey delete of a spilled value
-      assert !v.isPersisted() : f.length() + " " + v._max + " " + v._key;
+      assert !v.isPersisted() : flen + " " + v._max + " " + v._key;
       return null; // No value
     }
     try (FileInputStream s = new FileInputStream(f)) {
         AutoBuffer ab = new AutoBuffer(s.getChannel(), true, Value.ICE);
-        byte[] b = ab.getA1(v._max);
+        byte[] b = ab.getA1(packed ? (int)flen : v._max);
         ab.close();
-        return b;
+        return decode(v, b);
       }
   }
 
@@ -67,7 +69,8 @@ final class PersistFS extends Persist {
           Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length+" v._max="+v._max);
           v._max = m.length; // Implies update of underlying POJO, then re-serializing it without K/V storing it
         }
-        new AutoBuffer(s.getChannel(), false, Value.ICE).putA1(m, m.length).close();
+        byte[] w = encode(v, m);
+        new AutoBuffer(s.getChannel(), false, Value.ICE).putA1(w, w.length).close();
       } catch( AutoBuffer.AutoBufferException abe ) {
       throw abe._ioe;
     }
@@ -0,0 +1,246 @@
+package water.persist;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import water.*;
+import water.nbhm.NonBlockingHashMap;
+import water.util.Log;
+import water.util.PrettyPrint;
+
+/**
+ * Log-structured persistence backend for user-mode swapping.
+ * <p>
+ * Instead of one file per spilled Value (see {@link PersistFS}), Values are
+ * appended to large segment files under the ice root, and an in-memory index
+ * maps each Key to its (segment, offset, length).  A background compactor
+ * copies the live Values out of mostly-dead segments and drops the segment
+ * files.  Everything not related to swapping (the "file" scheme operations)
+ * is delegated to a plain {@link PersistFS}.
+ * <p>
+ * Enabled with the <code>-ice_log</code> command-line flag.
+ */
+final class PersistLog extends Persist {
+  /** Segment files roll over at this size */
+  static final long SEGMENT_SIZE = 256L<<20;
+  /** Compact a sealed segment once less than this fraction of it is live */
+  static final double COMPACT_RATIO = 0.5;
+
+  private final PersistFS _fs;  // Delegate for non-swap file operations
+  private final File _dir;      // Directory of segment files
+  private final long _segSize;  // Roll-over size, SEGMENT_SIZE but for tests
+
+  // One spilled Value: where its bytes live
+  private static final class Slot {
+    final Segment _seg; final long _off; final int _len;
+    Slot( Segment seg, long off, int len ) { _seg = seg; _off = off; _len = len; }
+  }
+
+  // One append-only segment file
+  private static final class Segment {
+    final int _id;
+    final File _file;
+    final FileChannel _fc;
+    final AtomicLong _live = new AtomicLong(); // Bytes still referenced from the index
+    final AtomicInteger _inflight = new AtomicInteger(); // Reserved slots not yet in the index
+    long _end;                  // Next append position; guarded by PersistLog.this
+    Segment( File dir, int id ) throws IOException {
+      _id = id;
+      _file = new File(dir, String.format("seg-%08d.log", id));
+      _fc = new RandomAccessFile(_file, "rw").getChannel();
+    }
+    void drop() {
+      try { _fc.close(); } catch( IOException ignore ) { }
+      _file.delete();           // Silently ignore errors
+    }
+  }
+
+  private final NonBlockingHashMap<Key,Slot> _index = new NonBlockingHashMap<>();
+  private final NonBlockingHashMap<Integer,Segment> _segs = new NonBlockingHashMap<>();
+  private final ArrayList<Segment> _retired = new ArrayList<>(); // Dropped on the next compaction pass; guarded by _compactLock
+  private final Object _compactLock = new Object(); // One compaction at a time, apart from appends
+  private Segment _head;        // Current append segment; guarded by this
+  private int _nextId;          // guarded by this
+
+  PersistLog( PersistFS fs ) { this(fs, SEGMENT_SIZE, true); }
+
+  // With a background compactor, or (for tests) compacting only when asked
+  PersistLog( PersistFS fs, long segSize, boolean compactor ) {
+    _fs = fs;
+    _dir = new File(fs._root, "icelog" + H2O.API_PORT);
+    _segSize = segSize;
+    if( !compactor ) return;
+    Thread t = new Thread("IceLogCompactor") {
+      @Override public void run() {
+        while( true ) {
+          try { Thread.sleep(10000); } catch( InterruptedException ignore ) { }
+          try { compact(); } catch( Throwable e ) { Log.warn("Ice log compaction failed: " + e); }
+        }
+      }
+    };
+    t.setDaemon(true);
+    t.start();
+  }
+
+  // Reserve space for len bytes at the end of the log, rolling over to a new
+  // segment as needed.  The actual write happens outside the lock; the slot
+  // counts as in-flight, keeping its segment from compaction, until the
+  // caller has put it in the index (see done).
+  private synchronized Slot reserve( int len ) throws IOException {
+    if( _head == null || (_head._end > 0 && _head._end + len > _segSize) ) {
+      if( !_dir.mkdirs() && !_dir.exists() )
+        throw new IOException("mkdirs failed making " + _dir);
+      _head = new Segment(_dir, _nextId++);
+      _segs.put(_head._id, _head);
+    }
+    Slot s = new Slot(_head, _head._end, len);
+    _head._end += len;
+    _head._live.addAndGet(len);
+    _head._inflight.incrementAndGet();
+    return s;
+  }
+  private static void done( Slot s ) { s._seg._inflight.decrementAndGet(); }
+
+  private static void write( Slot s, byte[] m ) throws IOException {
+    ByteBuffer bb = ByteBuffer.wrap(m, 0, s._len);
+    long off = s._off;
+    while( bb.hasRemaining() ) off += s._seg._fc.write(bb, off);
+  }
+
+  private static byte[] read( Slot s ) throws IOException {
+    byte[] b = MemoryManager.malloc1(s._len);
+    ByteBuffer bb = ByteBuffer.wrap(b);
+    long off = s._off;
+    while( bb.hasRemaining() ) {
+      int n = s._seg._fc.read(bb, off);
+      if( n < 0 ) throw new EOFException("Short ice log segment " + s._seg._file);
+      off += n;
+    }
+    return b;
+  }
+
+  private static void free( Slot s ) { if( s != null ) s._seg._live.addAndGet(-s._len); }
+
+  @Override public byte[] load(Value v) throws IOException {
+    while( true ) {
+      Slot s = _index.get(v._key);
+      if( s == null ) {         // Racey delete of a spilled value
+        assert !v.isPersisted() : v._key;
+        return null;
+      }
+      try { return decode(v, read(s)); }
+      catch( ClosedChannelException cce ) {
+        // Segment was compacted away under us; the index now points at the new copy
+        if( _index.get(v._key) == s ) throw cce;
+      }
+    }
+  }
+
+  // Store Value v to the end of the log.
+  @Override public void store(Value v) throws IOException {
+    assert !v.isPersisted();
+    byte[] m = v.memOrLoad(); // we are not single threaded anymore
+    if( m == null ) return;
+    if( m.length != v._max ) {
+      Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length+" v._max="+v._max);
+      v._max = m.length; // Implies update of underlying POJO, then re-serializing it without K/V storing it
+    }
+    byte[] w = encode(v, m);
+    Slot s = reserve(w.length);
+    try {
+      write(s, w);
+      free(_index.put(v._key, s));
+    } catch( IOException e ) {
+      free(s);                  // Never made it to the index
+      throw e;
+    } finally {
+      done(s);
+    }
+  }
+
+  @Override public void delete(Value v) {
+    free(_index.remove(v._key));
+  }
+
+  // Copy live Values out of sealed, mostly-dead segments, then retire them.
+  // Segments with slots still in flight are left for a later pass, as their
+  // Values are not in the index yet.  Retired segments are dropped one pass
+  // later, so loads racing with the index update still find their bytes.
+  void compact() throws IOException {
+    synchronized(_compactLock) {
+      for( Segment r : _retired ) r.drop();
+      _retired.clear();
+      Segment head;
+      synchronized(this) { head = _head; }
+      HashSet<Segment> cands = new HashSet<>();
+      for( Segment seg : _segs.values() )
+        if( seg != head && seg._inflight.get() == 0 && seg._live.get() < COMPACT_RATIO*seg._end )
+          cands.add(seg);
+      if( cands.isEmpty() ) return;
+      long moved = 0;
+      for( Map.Entry<Key,Slot> e : _index.entrySet() ) { // One pass for all candidates
+        Slot old = e.getValue();
+        if( !cands.contains(old._seg) ) continue;
+        Slot s = reserve(old._len);
+        try {
+          write(s, read(old));
+          if( _index.replace(e.getKey(), old, s) ) { free(old); moved += old._len; }
+          else free(s);         // Deleted or re-stored while we copied
+        } catch( IOException ioe ) {
+          free(s);
+          throw ioe;
+        } finally {
+          done(s);
+        }
+      }
+      for( Segment seg : cands ) {
+        _segs.remove(seg._id);
+        _retired.add(seg);
+      }
+      Log.debug("Ice log compacted " + cands.size() + " segments, moved " + PrettyPrint.bytes(moved));
+    }
+  }
+
+  // Segment files currently on disk, live or retired; for tests
+  int segmentFiles() {
+    String[] fs = _dir.list();
+    return fs == null ? 0 : fs.length;
+  }
+
+  /** Delete persistent storage on startup and shutdown */
+  @Override public void cleanUp() {
+    synchronized(_compactLock) {
+      synchronized(this) {
+        for( Segment seg : _segs.values() ) seg.drop();
+        for( Segment seg : _retired ) seg.drop();
+        _segs.clear();
+        _retired.clear();
+        _index.clear();
+        _head = null;
+      }
+    }
+    _fs.cleanUp();
+    _dir.delete();
+  }
+
+  @Override public long getUsableSpace() { return _fs.getUsableSpace(); }
+  @Override public long getTotalSpace() { return _fs.getTotalSpace(); }
+  @Override public Key uriToKey(URI uri) { return _fs.uriToKey(uri); }
+  @Override public ArrayList<String> calcTypeaheadMatches(String src, int limit) { return _fs.calcTypeaheadMatches(src, limit); }
+  @Override public void importFiles(String path, ArrayList<String> files, ArrayList<String> keys, ArrayList<String> fails, ArrayList<String> dels) {
+    _fs.importFiles(path, files, keys, fails, dels);
+  }
+  @Override public OutputStream create(String path, boolean overwrite) { return _fs.create(path, overwrite); }
+  @Override public PersistEntry[] list(String path) { return _fs.list(path); }
+  @Override public InputStream open(String path) { return _fs.open(path); }
+  @Override public boolean mkdirs(String path) { return _fs.mkdirs(path); }
+  @Override public boolean exists(String path) { return _fs.exists(path); }
+}
@@ -107,6 +107,9 @@ public class PersistManager {
 //      }
     }
 
+    if (ice instanceof PersistFS && H2O.ARGS.ice_log)
+      ice = new PersistLog((PersistFS) ice);
+
     I[Value.ICE ] = ice;
     I[Value.NFS ] = new PersistNFS();
 
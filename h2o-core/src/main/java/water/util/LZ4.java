@@ -0,0 +1,109 @@
+package water.util;
+
+/**
+ * A small, allocation-light LZ4-style block codec.
+ * <p>
+ * Byte-compatible with the LZ4 block format: a sequence of (token, literal
+ * length, literals, 2-byte little-endian match offset, match length), with the
+ * last sequence holding literals only.  Trades ratio for speed - a single
+ * 4-byte hash probe per position, no lazy matching - which is the right trade
+ * for spilling and shipping Chunk bytes.  The decompressed length is not
+ * stored in the block; callers keep it alongside (e.g. <code>Value._max</code>).
+ */
+public class LZ4 {
+  private static final int MIN_MATCH = 4;
+  private static final int HASH_LOG = 12;
+  private static final int LAST_LITERALS = 5; // Last bytes are always literals
+  private static final int MF_LIMIT = 12;     // No match may start this close to the end
+  private static final int MAX_OFF = 65535;
+
+  /** Worst-case size of compressing len bytes. */
+  public static int maxCompressedLength( int len ) { return len + len/255 + 16; }
+
+  /** Compress src[soff,soff+slen) into dst at doff; dst must have room for
+   *  {@link #maxCompressedLength}.
+   *  @return number of bytes written */
+  public static int compress( byte[] src, int soff, int slen, byte[] dst, int doff ) {
+    final int send = soff+slen;
+    int d = doff, anchor = soff;
+    if( slen > MF_LIMIT ) {
+      final int[] table = new int[1<<HASH_LOG]; // Position+1 of last sighting; 0 is empty
+      final int limit = send - MF_LIMIT, mlimit = send - LAST_LITERALS;
+      int s = soff;
+      while( s < limit ) {
+        int seq = UnsafeUtils.get4(src,s);
+        int h = (seq * -1640531535) >>> (32-HASH_LOG);
+        int ref = table[h]-1+soff;
+        table[h] = s-soff+1;
+        if( ref < soff || s-ref > MAX_OFF || UnsafeUtils.get4(src,ref) != seq ) { s++; continue; }
+        int m = s+MIN_MATCH, r = ref+MIN_MATCH;
+        while( m < mlimit && src[m]==src[r] ) { m++; r++; }
+        // Emit literals [anchor,s) and the match
+        int lit = s-anchor, ml = m-s-MIN_MATCH, tok = d++;
+        dst[tok] = (byte)((Math.min(lit,15)<<4) | Math.min(ml,15));
+        if( lit >= 15 ) d = putLen(dst,d,lit-15);
+        System.arraycopy(src,anchor,dst,d,lit);  d += lit;
+        int off = s-ref;
+        dst[d++] = (byte)off;  dst[d++] = (byte)(off>>>8);
+        if( ml >= 15 ) d = putLen(dst,d,ml-15);
+        anchor = s = m;
+      }
+    }
+    // Trailing literals
+    int lit = send-anchor;
+    dst[d++] = (byte)(Math.min(lit,15)<<4);
+    if( lit >= 15 ) d = putLen(dst,d,lit-15);
+    System.arraycopy(src,anchor,dst,d,lit);  d += lit;
+    return d-doff;
+  }
+
+  private static int putLen( byte[] dst, int d, int n ) {
+    while( n >= 255 ) { dst[d++] = (byte)255; n -= 255; }
+    dst[d++] = (byte)n;
+    return d;
+  }
+
+  /** Compress all of src.
+   *  @return a right-sized compressed copy */
+  public static byte[] compress( byte[] src ) {
+    byte[] dst = new byte[maxCompressedLength(src.length)];
+    int len = compress(src,0,src.length,dst,0);
+    return java.util.Arrays.copyOf(dst,len);
+  }
+
+  /** Decompress the block src[soff,soff+slen) into exactly dlen bytes of dst
+   *  starting at doff.
+   *  @throws IllegalArgumentException on a corrupt or mis-sized block */
+  public static void decompress( byte[] src, int soff, int slen, byte[] dst, int doff, int dlen ) {
+    final int send = soff+slen, dend = doff+dlen;
+    int s = soff, d = doff;
+    try {
+      while( s < send ) {
+        int tok = src[s++]&0xFF;
+        int lit = tok>>>4;
+        if( lit == 15 ) { int b; do { b = src[s++]&0xFF; lit += b; } while( b == 255 ); }
+        System.arraycopy(src,s,dst,d,lit);  s += lit;  d += lit;
+        if( s >= send ) break;  // Last sequence: literals only
+        int off = (src[s]&0xFF) | ((src[s+1]&0xFF)<<8);  s += 2;
+        int ml = tok&15;
+        if( ml == 15 ) { int b; do { b = src[s++]&0xFF; ml += b; } while( b == 255 ); }
+        ml += MIN_MATCH;
+        int r = d-off;
+        if( off == 0 || r < doff || d+ml > dend ) throw new IllegalArgumentException("Corrupt LZ4 block");
+        if( off >= ml ) System.arraycopy(dst,r,dst,d,ml);
+        else for( int i=0; i<ml; i++ ) dst[d+i] = dst[r+i]; // Overlapping run
+        d += ml;
+      }
+    } catch( ArrayIndexOutOfBoundsException e ) {
+      throw new IllegalArgumentException("Corrupt LZ4 block");
+    }
+    if( d != dend ) throw new IllegalArgumentException("LZ4 block decompressed to "+(d-doff)+" bytes, expected "+dlen);
+  }
+
+  /** Decompress all of src into a new array of dlen bytes. */
+  public static byte[] decompress( byte[] src, int dlen ) {
+    byte[] dst = new byte[dlen];
+    decompress(src,0,src.length,dst,0,dlen);
+    return dst;
+  }
+}
@@ -0,0 +1,192 @@
+package water.util;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Linux NUMA topology reader.
+ *
+ * Reads the CPUs of each NUMA node from
+ * <code>/sys/devices/system/node/node&lt;N&gt;/cpulist</code>, restricted to
+ * the CPUs this process may run on, and pins threads to a node's CPUs with
+ * <code>taskset</code>, run in batches from a daemon thread.  Java has no affinity API; a thread finds its own
+ * kernel thread id through <code>/proc/thread-self</code>.
+ *
+ * Find definitions of the sysfs node files here.
+ * https://www.kernel.org/doc/Documentation/ABI/stable/sysfs-devices-node
+ */
+public class NumaTopology {
+  private static final File NODES = new File("/sys/devices/system/node");
+  private static volatile boolean _pinWarned; // Only warn once
+
+  /**
+   * @return CPU numbers of each NUMA node with CPUs usable by this process,
+   *         or null if not on Linux or the topology cannot be read.
+   */
+  public static int[][] read() {
+    File[] dirs = NODES.listFiles();
+    if( dirs == null ) return null;
+    long[] allowed = allowedCpus();
+    ArrayList<int[]> nodes = new ArrayList<>();
+    for( int n = 0; n < 1024; n++ ) { // Node numbers are dense in practice
+      File f = new File(NODES, "node" + n + "/cpulist");
+      if( !f.exists() ) continue;
+      try {
+        int[] cpus = filter(parseCpuList(readFile(f)), allowed);
+        if( cpus.length > 0 ) nodes.add(cpus);
+      } catch( IOException e ) {
+        Log.warn("Cannot read " + f + ": " + e);
+        return null;
+      }
+    }
+    return nodes.isEmpty() ? null : nodes.toArray(new int[nodes.size()][]);
+  }
+
+  /**
+   * Parse a kernel CPU list such as <code>0-3,8,10-11</code>.
+   * @return the listed CPU numbers, ascending
+   */
+  public static int[] parseCpuList(String s) {
+    s = s.trim();
+    ArrayList<Integer> cpus = new ArrayList<>();
+    if( !s.isEmpty() )
+      for( String r : s.split(",") ) {
+        int dash = r.indexOf('-');
+        int lo = Integer.parseInt(r.substring(0, dash < 0 ? r.length() : dash).trim());
+        int hi = dash < 0 ? lo : Integer.parseInt(r.substring(dash+1).trim());
+        for( int c = lo; c <= hi; c++ ) cpus.add(c);
+      }
+    int[] res = new int[cpus.size()];
+    for( int i = 0; i < res.length; i++ ) res[i] = cpus.get(i);
+    return res;
+  }
+
+  /**
+   * Format CPU numbers as a kernel CPU list, as <code>taskset -c</code> takes.
+   */
+  public static String toCpuList(int[] cpus) {
+    StringBuilder sb = new StringBuilder();
+    for( int i = 0; i < cpus.length; i++ ) {
+      int j = i;
+      while( j+1 < cpus.length && cpus[j+1] == cpus[j]+1 ) j++;
+      if( sb.length() > 0 ) sb.append(',');
+      sb.append(cpus[i]);
+      if( j > i ) sb.append('-').append(cpus[j]);
+      i = j;
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Queue the calling thread to be restricted to the given CPUs.  Cheap: the
+   * caller only records its kernel thread id; a daemon thread pins all the
+   * threads queued meanwhile with one <code>taskset</code> run per CPU list,
+   * so thread start-up never waits on a subprocess.  Failures are logged and
+   * leave that batch of threads running anywhere; later batches still try.
+   */
+  public static void pinCurrentThread(String cpuList) {
+    String tid;
+    try {
+      tid = Files.readSymbolicLink(Paths.get("/proc/thread-self")).getFileName().toString(); // "<pid>/task/<tid>"
+    } catch( Exception e ) {
+      pinFailed(e);
+      return;
+    }
+    synchronized( PENDING ) {
+      ArrayList<String> tids = PENDING.get(cpuList);
+      if( tids == null ) PENDING.put(cpuList, tids = new ArrayList<>());
+      tids.add(tid);
+      if( _pinner == null ) { _pinner = new Pinner(); _pinner.start(); }
+      PENDING.notify();
+    }
+  }
+
+  // Thread ids waiting to be pinned, by CPU list
+  private static final HashMap<String,ArrayList<String>> PENDING = new HashMap<>();
+  private static Pinner _pinner;
+
+  private static class Pinner extends Thread {
+    Pinner() { super("NUMA-Pinner"); setDaemon(true); }
+    @Override public void run() {
+      while( true ) {
+        HashMap<String,ArrayList<String>> batch;
+        try {
+          synchronized( PENDING ) { while( PENDING.isEmpty() ) PENDING.wait(); }
+          Thread.sleep(100);    // Let a pool start its workers, then pin them together
+        } catch( InterruptedException ignore ) { continue; }
+        synchronized( PENDING ) {
+          batch = new HashMap<>(PENDING);
+          PENDING.clear();
+        }
+        for( Map.Entry<String,ArrayList<String>> e : batch.entrySet() ) {
+          ArrayList<String> cmd = new ArrayList<>();
+          cmd.add("sh"); cmd.add("-c");
+          cmd.add("c=$1; shift; for t; do taskset -p -c \"$c\" \"$t\" || exit 1; done");
+          cmd.add("sh"); cmd.add(e.getKey());
+          cmd.addAll(e.getValue());
+          try {
+            Process p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+            drain(p.getInputStream());
+            if( p.waitFor() != 0 ) throw new IOException("taskset exited with " + p.exitValue());
+          } catch( Exception ex ) {
+            pinFailed(ex);
+          }
+        }
+      }
+    }
+  }
+
+  private static void pinFailed(Exception e) {
+    String msg = "Cannot pin threads to NUMA nodes, running them unpinned: " + e;
+    if( _pinWarned ) Log.debug(msg);
+    else { _pinWarned = true; Log.warn(msg); }
+  }
+
+  // CPUs this process may run on, as a bitset; null if unknown (all allowed)
+  private static long[] allowedCpus() {
+    try {
+      for( String line : readFile(new File("/proc/self/status")).split("\n") )
+        if( line.startsWith("Cpus_allowed_list:") ) {
+          int[] cpus = parseCpuList(line.substring(line.indexOf(':')+1));
+          long[] bits = new long[cpus.length == 0 ? 1 : (cpus[cpus.length-1]>>6)+1];
+          for( int c : cpus ) bits[c>>6] |= 1L<<c;
+          return bits;
+        }
+    } catch( IOException ignore ) { }
+    return null;
+  }
+
+  private static int[] filter(int[] cpus, long[] allowed) {
+    if( allowed == null ) return cpus;
+    int n = 0;
+    int[] res = new int[cpus.length];
+    for( int c : cpus )
+      if( (c>>6) < allowed.length && (allowed[c>>6] & (1L<<c)) != 0 ) res[n++] = c;
+    int[] out = new int[n];
+    System.arraycopy(res, 0, out, 0, n);
+    return out;
+  }
+
+  private static String readFile(File f) throws IOException {
+    BufferedReader br = new BufferedReader(new FileReader(f));
+    try {
+      StringBuilder sb = new StringBuilder();
+      String line;
+      while( (line = br.readLine()) != null ) sb.append(line).append('\n');
+      return sb.toString();
+    } finally {
+      br.close();
+    }
+  }
+
+  private static void drain(InputStream is) throws IOException {
+    byte[] buf = new byte[256];
+    while( is.read(buf) >= 0 ) ;
+    is.close();
+  }
+}
@@ -26,11 +26,31 @@ public class WaterMeterIo extends Iced {
     public long load_bytes;
   }
 
+  public static class WireStatsEntry extends Schema<Iced, WireStatsEntry> {
+    @API(help="Large payloads considered for wire compression, uncompressed bytes", direction = API.Direction.OUTPUT)
+    public long raw_bytes;
+
+    @API(help="Bytes actually sent for those payloads", direction = API.Direction.OUTPUT)
+    public long sent_bytes;
+
+    @API(help="Compression ratio, raw_bytes / sent_bytes", direction = API.Direction.OUTPUT)
+    public double ratio;
+
+    @API(help="Number of payloads sent compressed", direction = API.Direction.OUTPUT)
+    public long deflated_count;
+
+    @API(help="Number of compressed payloads received", direction = API.Direction.OUTPUT)
+    public long inflated_count;
+
+    void setRatio() { ratio = sent_bytes == 0 ? 1 : (double)raw_bytes/sent_bytes; }
+  }
+
   // Input
   public int nodeidx;
 
   // Output
   public IoStatsEntry persist_stats[];
+  public WireStatsEntry wire_stats;
 
   public void doIt(boolean aggregateAllNodes) {
     if (! aggregateAllNodes) {
@@ -38,6 +58,7 @@ public class WaterMeterIo extends Iced {
       return;
     }
 
+    wire_stats = new WireStatsEntry();
     for (int i = 0; i < H2O.CLOUD.size(); i++) {
       WaterMeterIo io = new WaterMeterIo();
       io.doIt(i);
@@ -56,7 +77,12 @@ public class WaterMeterIo extends Iced {
         persist_stats[j].load_count += io.persist_stats[j].load_count;
         persist_stats[j].load_bytes += io.persist_stats[j].load_bytes;
       }
+      wire_stats.raw_bytes += io.wire_stats.raw_bytes;
+      wire_stats.sent_bytes += io.wire_stats.sent_bytes;
+      wire_stats.deflated_count += io.wire_stats.deflated_count;
+      wire_stats.inflated_count += io.wire_stats.inflated_count;
     }
+    wire_stats.setRatio();
   }
 
   private void doIt(int idx) {
@@ -67,10 +93,12 @@ public class WaterMeterIo extends Iced {
     new RPC<>(node, t).call().get();
     Log.trace("IO GetTask completed to node " + idx);
     persist_stats = t._persist_stats;
+    wire_stats = t._wire_stats;
   }
 
   private static class GetTask extends DTask<GetTask> {
     private IoStatsEntry _persist_stats[];
+    private WireStatsEntry _wire_stats;
 
     public GetTask() { super(H2O.MIN_HI_PRIORITY); _persist_stats = null; }
 
@@ -117,6 +145,13 @@ public class WaterMeterIo extends Iced {
         assert(src_e.load_bytes.get() == 0);
       }
 
+      _wire_stats = new WireStatsEntry();
+      _wire_stats.raw_bytes = AutoBuffer.WIRE_RAW_BYTES.get();
+      _wire_stats.sent_bytes = AutoBuffer.WIRE_SENT_BYTES.get();
+      _wire_stats.deflated_count = AutoBuffer.WIRE_DEFLATED.get();
+      _wire_stats.inflated_count = AutoBuffer.WIRE_INFLATED.get();
+      _wire_stats.setRatio();
+
       tryComplete();
     }
   }
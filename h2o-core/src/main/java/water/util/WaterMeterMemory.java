@@ -0,0 +1,80 @@
+package water.util;
+
+import water.*;
+import water.api.API;
+import water.api.Schema;
+
+/** Per-node breakdown of K/V store memory by kind of data (raw file chunks,
+ *  swappable chunks, frame and vec headers, models, temporaries). */
+public class WaterMeterMemory extends Iced {
+  public static class NodeMemoryEntry extends Schema<Iced, NodeMemoryEntry> {
+    @API(help="Node address", direction = API.Direction.OUTPUT)
+    public String node;
+
+    @API(help="Kinds of K/V data, in the order of the arrays below", direction = API.Direction.OUTPUT)
+    public String[] kinds;
+
+    @API(help="Bytes cached in the Java heap, per kind", direction = API.Direction.OUTPUT)
+    public long[] heap_bytes;
+
+    @API(help="Bytes swapped out to the persist backend, per kind", direction = API.Direction.OUTPUT)
+    public long[] swapped_bytes;
+
+    @API(help="Bytes parked off-heap, per kind", direction = API.Direction.OUTPUT)
+    public long[] offheap_bytes;
+
+    @API(help="Number of Values, per kind", direction = API.Direction.OUTPUT)
+    public long[] counts;
+
+    @API(help="Heap bytes available to the K/V store", direction = API.Direction.OUTPUT)
+    public long mem_max;
+
+    @API(help="Off-heap bytes in use", direction = API.Direction.OUTPUT)
+    public long offheap_used;
+  }
+
+  // Input
+  public int nodeidx;
+
+  // Output
+  public NodeMemoryEntry nodes[];
+
+  public void doIt(boolean allNodes) {
+    if( !allNodes ) {
+      nodes = new NodeMemoryEntry[]{doIt(nodeidx)};
+      return;
+    }
+    nodes = new NodeMemoryEntry[H2O.CLOUD.size()];
+    for( int i = 0; i < nodes.length; i++ )
+      nodes[i] = doIt(i);
+  }
+
+  private static NodeMemoryEntry doIt(int idx) {
+    H2ONode node = H2O.CLOUD._memary[idx];
+    GetTask t = new GetTask();
+    Log.trace("Memory GetTask starting to node " + idx + "...");
+    new RPC<>(node, t).call().get();
+    Log.trace("Memory GetTask completed to node " + idx);
+    return t._entry;
+  }
+
+  private static class GetTask extends DTask<GetTask> {
+    private NodeMemoryEntry _entry;
+
+    public GetTask() { super(H2O.MIN_HI_PRIORITY); _entry = null; }
+
+    @Override public void compute2() {
+      long[][] b = MemoryManager.kvBreakdown();
+      NodeMemoryEntry e = _entry = new NodeMemoryEntry();
+      e.node = H2O.SELF.toString();
+      e.kinds = MemoryManager.KV_KINDS;
+      e.heap_bytes = b[0];
+      e.swapped_bytes = b[1];
+      e.offheap_bytes = b[2];
+      e.counts = b[3];
+      e.mem_max = MemoryManager.MEM_MAX;
+      e.offheap_used = MemoryManager.offHeapUsed();
+      tryComplete();
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package water.util;
+
+import java.util.ArrayList;
+
+import water.*;
+import water.api.API;
+import water.api.Schema;
+
+/** Per-node remote task latencies, and recent slow remote tasks; see
+ *  {@link RPCStats}. */
+public class WaterMeterRpc extends Iced {
+  public static class LatencyEntry extends Schema<Iced, LatencyEntry> {
+    @API(help="Node address", direction = API.Direction.OUTPUT)
+    public String node;
+
+    @API(help="What was timed: round_trip, queued or serialize", direction = API.Direction.OUTPUT)
+    public String kind;
+
+    @API(help="Task class", direction = API.Direction.OUTPUT)
+    public String task;
+
+    @API(help="Target node of the round trips; empty for other kinds", direction = API.Direction.OUTPUT)
+    public String peer;
+
+    @API(help="Number of samples", direction = API.Direction.OUTPUT)
+    public long count;
+
+    @API(help="Mean, in milliseconds", direction = API.Direction.OUTPUT)
+    public double mean_ms;
+
+    @API(help="Median, in milliseconds", direction = API.Direction.OUTPUT)
+    public double p50_ms;
+
+    @API(help="90th percentile, in milliseconds", direction = API.Direction.OUTPUT)
+    public double p90_ms;
+
+    @API(help="99th percentile, in milliseconds", direction = API.Direction.OUTPUT)
+    public double p99_ms;
+
+    @API(help="Maximum, in milliseconds", direction = API.Direction.OUTPUT)
+    public double max_ms;
+  }
+
+  public static class TraceEntry extends Schema<Iced, TraceEntry> {
+    @API(help="Node that made the call", direction = API.Direction.OUTPUT)
+    public String node;
+
+    @API(help="Task class", direction = API.Direction.OUTPUT)
+    public String task;
+
+    @API(help="Target node", direction = API.Direction.OUTPUT)
+    public String peer;
+
+    @API(help="Time the call was made, in milliseconds since the epoch", direction = API.Direction.OUTPUT)
+    public long started;
+
+    @API(help="Round trip time, in milliseconds", direction = API.Direction.OUTPUT)
+    public double round_trip_ms;
+
+    @API(help="Stack of the thread that made the call, innermost first; empty for the first slow call of a task class", direction = API.Direction.OUTPUT)
+    public String[] stack;
+  }
+
+  // Input
+  public int nodeidx;
+
+  // Output
+  public LatencyEntry latencies[];
+  public TraceEntry slow_traces[];
+
+  public void doIt(boolean allNodes) {
+    if( !allNodes ) {
+      GetTask t = doIt(nodeidx);
+      latencies = t._latencies;
+      slow_traces = t._traces;
+      return;
+    }
+    ArrayList<LatencyEntry> ls = new ArrayList<>();
+    ArrayList<TraceEntry> ts = new ArrayList<>();
+    for( int i = 0; i < H2O.CLOUD.size(); i++ ) {
+      GetTask t = doIt(i);
+      for( LatencyEntry l : t._latencies ) ls.add(l);
+      for( TraceEntry e : t._traces ) ts.add(e);
+    }
+    latencies = ls.toArray(new LatencyEntry[ls.size()]);
+    slow_traces = ts.toArray(new TraceEntry[ts.size()]);
+  }
+
+  private static GetTask doIt(int idx) {
+    H2ONode node = H2O.CLOUD._memary[idx];
+    GetTask t = new GetTask();
+    Log.trace("Rpc GetTask starting to node " + idx + "...");
+    new RPC<>(node, t).call().get();
+    Log.trace("Rpc GetTask completed to node " + idx);
+    return t;
+  }
+
+  private static double ms( long ns ) { return ns/1e6; }
+
+  private static class GetTask extends DTask<GetTask> {
+    private LatencyEntry _latencies[];
+    private TraceEntry _traces[];
+
+    public GetTask() { super(H2O.MIN_HI_PRIORITY); }
+
+    @Override public void compute2() {
+      String self = H2O.SELF.toString();
+      ArrayList<RPCStats.Latency> hs = RPCStats.histograms();
+      _latencies = new LatencyEntry[hs.size()];
+      for( int i = 0; i < _latencies.length; i++ ) {
+        RPCStats.Latency h = hs.get(i);
+        RPCStats.Histogram histo = h._histo;
+        LatencyEntry e = _latencies[i] = new LatencyEntry();
+        e.node = self;
+        e.kind = h._kind;
+        e.task = h._task;
+        e.peer = h._peer == null ? "" : h._peer;
+        e.count = histo.count();
+        e.mean_ms = e.count == 0 ? 0 : ms(histo.sum())/e.count;
+        long[] q = histo.quantiles(0.5, 0.9, 0.99);
+        e.p50_ms = ms(q[0]);
+        e.p90_ms = ms(q[1]);
+        e.p99_ms = ms(q[2]);
+        e.max_ms = ms(histo.max());
+      }
+      ArrayList<RPCStats.Trace> ts = RPCStats.traces();
+      _traces = new TraceEntry[ts.size()];
+      for( int i = 0; i < _traces.length; i++ ) {
+        RPCStats.Trace t = ts.get(i);
+        TraceEntry e = _traces[i] = new TraceEntry();
+        e.node = self;
+        e.task = t._task;
+        e.peer = t._peer;
+        e.started = t._started;
+        e.round_trip_ms = ms(t._rtt);
+        e.stack = new String[t._stack.length];
+        for( int j = 0; j < e.stack.length; j++ ) e.stack[j] = t._stack[j].toString();
+      }
+      tryComplete();
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package water;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+/**
+ * Broadcast values across the cloud: every node resolves the value, updates
+ * reach tasks made after them, and nodes missing a version - stale handles,
+ * evicted copies, handles read from local bytes - fetch it from the origin.
+ */
+public class BroadcastTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(3); }
+
+  public static class Vals extends Iced<Vals> {
+    public double _d;
+    public Vals() { }
+    Vals( double d ) { _d = d; }
+  }
+
+  // Sums the broadcast value once per row, on whichever nodes hold the rows
+  private static class Use extends MRTask<Use> {
+    final Broadcast<Vals> _b;
+    double _sum;
+    Use( Broadcast<Vals> b ) { _b = b; }
+    @Override public void map( Chunk c ) { _sum += c._len*_b.get()._d; }
+    @Override public void reduce( Use u ) { _sum += u._sum; }
+  }
+
+  // Same, from a handle serialized to bytes rather than carried by the task
+  private static class FromBytes extends MRTask<FromBytes> {
+    final byte[] _bits;
+    double _sum;
+    FromBytes( byte[] bits ) { _bits = bits; }
+    @Override public void map( Chunk c ) {
+      Broadcast<Vals> b = new AutoBuffer(_bits).get();
+      _sum += c._len*b.get()._d;
+    }
+    @Override public void reduce( FromBytes f ) { _sum += f._sum; }
+  }
+
+  private static class Evict extends MRTask<Evict> {
+    @Override protected void setupLocal() { Broadcast.evictIdle(0); }
+  }
+
+  // Rows spread over every node
+  private static Vec rows() { return Vec.makeCon(0.0, 100000, 3, false); }
+
+  @Test public void testEveryNodeSeesUpdates() {
+    Vec v = rows();
+    Broadcast<Vals> b = new Broadcast<>(new Vals(2));
+    try {
+      Assert.assertEquals(2.0*v.length(), new Use(b).doAll(v)._sum, 0);
+      Assert.assertEquals(2.0*v.length(), new Use(b).doAll(v)._sum, 0); // Cached copies
+      b.update(new Vals(3));
+      Assert.assertEquals(3.0*v.length(), new Use(b).doAll(v)._sum, 0);
+    } finally {
+      b.remove();
+      v.remove();
+    }
+  }
+
+  @Test public void testStaleHandleFetchesFromOrigin() {
+    Vec v = rows();
+    Broadcast<Vals> b = new Broadcast<>(new Vals(2));
+    try {
+      Broadcast<Vals> old = b.clone();
+      b.update(new Vals(3));
+      // Nodes cache the new version first; the old handle's parent no
+      // longer holds its version, so it comes from the origin
+      Assert.assertEquals(3.0*v.length(), new Use(b).doAll(v)._sum, 0);
+      Assert.assertEquals(2.0*v.length(), new Use(old).doAll(v)._sum, 0);
+    } finally {
+      b.remove();
+      v.remove();
+    }
+  }
+
+  @Test public void testEvictedCopiesRefetched() {
+    Vec v = rows();
+    Broadcast<Vals> b = new Broadcast<>(new Vals(2));
+    try {
+      Assert.assertEquals(2.0*v.length(), new Use(b).doAll(v)._sum, 0);
+      new Evict().doAllNodes(); // Drops every copy but the origin's
+      Assert.assertEquals(2.0*v.length(), new Use(b).doAll(v)._sum, 0);
+    } finally {
+      b.remove();
+      v.remove();
+    }
+  }
+
+  @Test public void testHandleFromLocalBytes() {
+    Vec v = rows();
+    Broadcast<Vals> b = new Broadcast<>(new Vals(5));
+    try {
+      byte[] bits = new AutoBuffer().put(b).buf();
+      Assert.assertEquals(5.0*v.length(), new FromBytes(bits).doAll(v)._sum, 0);
+    } finally {
+      b.remove();
+      v.remove();
+    }
+  }
+
+  @Test public void testRemoved() {
+    Broadcast<Vals> b = new Broadcast<>(new Vals(1));
+    Broadcast<Vals> h = new AutoBuffer(new AutoBuffer().put(b).buf()).get();
+    b.remove();
+    try {
+      h.get();
+      Assert.fail("Expected a removed Broadcast to be unavailable");
+    } catch( IllegalStateException expected ) { }
+  }
+}
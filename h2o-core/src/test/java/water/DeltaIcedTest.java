@@ -0,0 +1,109 @@
+package water;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * DeltaIced block diffs, hashes and patching, and the fall back to a full
+ * send when the receiver no longer holds a delta's base.
+ */
+public class DeltaIcedTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  public static class Blob extends DeltaIced<Blob> {
+    public byte[] _b;
+    public Blob() { }
+    Blob( byte[] b ) { _b = b; }
+  }
+
+  private static byte[] bytes( int len, long seed ) {
+    byte[] b = new byte[len];
+    new Random(seed).nextBytes(b);
+    return b;
+  }
+
+  @Test public void testDiff() {
+    byte[] base = bytes(4096, 1);
+    Assert.assertEquals(0, DeltaIced.diff(base, base.clone()).length);
+    byte[] cur = base.clone();
+    cur[130] ^= 1;              // One 64-byte block...
+    cur[4000] ^= 1;             // ...and another
+    int[] runs = DeltaIced.diff(base, cur);
+    Assert.assertArrayEquals(new int[]{128, 64, 3968, 64}, runs);
+    cur[150] ^= 1;              // Adjacent changed blocks merge into one run
+    cur[200] ^= 1;
+    Assert.assertArrayEquals(new int[]{128, 128, 3968, 64}, DeltaIced.diff(base, cur));
+    // Growing: the tail past the base counts as changed
+    byte[] grown = Arrays.copyOf(base, 4096+100);
+    Assert.assertArrayEquals(new int[]{4096, 100}, DeltaIced.diff(base, grown));
+    // Changing more than half is not worth a delta
+    Assert.assertNull(DeltaIced.diff(base, bytes(4096, 2)));
+  }
+
+  @Test public void testHash() {
+    byte[] a = bytes(1000, 3);
+    Assert.assertEquals(DeltaIced.hash(a), DeltaIced.hash(a.clone()));
+    for( int i : new int[]{0, 7, 8, 500, 999} ) {
+      byte[] b = a.clone();
+      b[i] ^= 0x10;
+      Assert.assertNotEquals(DeltaIced.hash(a), DeltaIced.hash(b));
+    }
+    Assert.assertNotEquals(DeltaIced.hash(a), DeltaIced.hash(Arrays.copyOf(a, 1001)));
+  }
+
+  // Ship f to node as the next version; returns the bytes on the wire
+  private static byte[] ship( Blob f, H2ONode node, ArrayList<DeltaIced.Shipped> shipped ) {
+    return DeltaIced.writeDelta(new AutoBuffer(), node, shipped, f).buf();
+  }
+  private static Blob receive( byte[] wire, H2ONode from ) {
+    AutoBuffer ab = new AutoBuffer(wire);
+    Assert.assertEquals(DeltaIced.TAG, ab.getInt());
+    return (Blob)DeltaIced.readDelta(ab, from);
+  }
+
+  @Test public void testPatch() {
+    H2ONode node = H2O.SELF;
+    Blob f = new Blob(bytes(8192, 4));
+    ArrayList<DeltaIced.Shipped> shipped = new ArrayList<>();
+    byte[] full = ship(f, node, shipped);
+    Assert.assertArrayEquals(f._b, receive(full, node)._b);
+    DeltaIced.confirm(shipped);
+    // Change a little; the next send is a delta against the confirmed version
+    f._b[10] ^= 1;
+    f._b[5000] ^= 1;
+    shipped = new ArrayList<>();
+    byte[] delta = ship(f, node, shipped);
+    Assert.assertTrue(delta.length < full.length/4);
+    Blob g = receive(delta, node);
+    Assert.assertArrayEquals(f._b, g._b);
+    Assert.assertEquals(f._deltaId, g._deltaId);
+    DeltaIced.confirm(shipped);
+  }
+
+  @Test public void testMissingBaseFallsBackToFull() {
+    H2ONode node = H2O.SELF;
+    Blob f = new Blob(bytes(8192, 5));
+    ArrayList<DeltaIced.Shipped> shipped = new ArrayList<>();
+    ship(f, node, shipped);     // Never received: the receiver has no base
+    DeltaIced.confirm(shipped);
+    f._b[100] ^= 1;
+    shipped = new ArrayList<>();
+    byte[] delta = ship(f, node, shipped);
+    try {
+      receive(delta, node);
+      Assert.fail("Expected a missing base");
+    } catch( DeltaIced.MissingBase expected ) { }
+    // What the RPC does on the receiver's request: forget the base, resend
+    DeltaIced.forget(shipped);
+    Assert.assertTrue(shipped.isEmpty());
+    byte[] full = ship(f, node, shipped);
+    Assert.assertTrue(full.length > f._b.length);
+    Assert.assertArrayEquals(f._b, receive(full, node)._b);
+    DeltaIced.confirm(shipped);
+  }
+}
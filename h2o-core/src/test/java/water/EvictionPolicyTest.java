@@ -0,0 +1,82 @@
+package water;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Cleaner eviction policies: picking by name, plain LRU cutoffs, and the
+ * cost-aware policy weighing reload cost, size and access frequency.
+ */
+public class EvictionPolicyTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static final long NOW = 1000000L;
+
+  private static Value value( int size, byte backend, boolean persisted, long lastAccess, int accesses ) {
+    Value v = new Value(Key.make(), size, new byte[size], TypeMap.PRIM_B, backend);
+    if( persisted ) v.setDsk();
+    v._lastAccessedTime = lastAccess;
+    v._accessCnt = accesses;
+    v._accessDecayTime = NOW;
+    return v;
+  }
+
+  @Test public void testMake() {
+    Assert.assertTrue(EvictionPolicy.make(null) instanceof EvictionPolicy.LRU);
+    Assert.assertTrue(EvictionPolicy.make("lru") instanceof EvictionPolicy.LRU);
+    Assert.assertTrue(EvictionPolicy.make("cost") instanceof EvictionPolicy.CostAware);
+    try {
+      EvictionPolicy.make("fifo");
+      Assert.fail("Expected an unknown policy to be rejected");
+    } catch( IllegalArgumentException expected ) { }
+  }
+
+  @Test public void testLRU() {
+    EvictionPolicy p = EvictionPolicy.make("lru");
+    long cutoff = NOW - 1000;
+    Assert.assertTrue (p.evict(value(100, Value.ICE, false, cutoff-1, 0), NOW, cutoff));
+    Assert.assertTrue (p.evict(value(100, Value.ICE, false, cutoff,   0), NOW, cutoff));
+    Assert.assertFalse(p.evict(value(100, Value.ICE, false, cutoff+1, 0), NOW, cutoff));
+    // Frequency and cost play no part
+    Assert.assertTrue (p.evict(value(100, Value.ICE, false, cutoff-1, 1000), NOW, cutoff));
+  }
+
+  @Test public void testCostAwareReloadCost() {
+    EvictionPolicy p = EvictionPolicy.make("cost");
+    long cutoff = NOW - 1000;
+    long idle = NOW - 700;      // Idle 700ms: under the 1000ms LRU cutoff
+    // Re-readable from its source file: stretched past the cutoff
+    Assert.assertTrue (p.evict(value(1<<20, Value.NFS, true,  idle, 0), NOW, cutoff));
+    // Needs a write first: kept
+    Assert.assertFalse(p.evict(value(1<<20, Value.ICE, false, idle, 0), NOW, cutoff));
+  }
+
+  @Test public void testCostAwareFrequency() {
+    EvictionPolicy p = EvictionPolicy.make("cost");
+    long cutoff = NOW - 1000;
+    long idle = NOW - 3000;     // Idle past the LRU cutoff
+    Assert.assertTrue(p.evict(value(100, Value.ICE, true, idle, 0), NOW, cutoff));
+    Value hot = value(100, Value.ICE, true, idle, 1000);
+    Assert.assertFalse(p.evict(hot, NOW, cutoff)); // Frequently used: kept
+    Assert.assertFalse(p.evict(hot, NOW, cutoff)); // However many passes look at it
+    Assert.assertEquals(1000, hot._accessCnt);     // Visits leave the count alone
+    // Frequency decays with time: halved per interval since the decay mark
+    Assert.assertEquals(1000, hot.accessCount(NOW + Value.ACCESS_DECAY_MS-1));
+    Assert.assertEquals(500,  hot.accessCount(NOW + Value.ACCESS_DECAY_MS));
+    Assert.assertEquals(250,  hot.accessCount(NOW + 2*Value.ACCESS_DECAY_MS));
+    Assert.assertEquals(0,    hot.accessCount(NOW + 40*Value.ACCESS_DECAY_MS));
+    // Until, long unused, it goes like any idle Value
+    long later = NOW + 40*Value.ACCESS_DECAY_MS;
+    Assert.assertTrue(p.evict(hot, later, later - (NOW - cutoff)));
+  }
+
+  @Test public void testEvictionCount() {
+    EvictionPolicy p = EvictionPolicy.make("lru");
+    Assert.assertEquals(0, p.evictions());
+    p.evicted();
+    p.evicted();
+    Assert.assertEquals(2, p.evictions());
+    Assert.assertTrue(p.toString().startsWith("lru(misses:"));
+  }
+}
@@ -0,0 +1,103 @@
+package water;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Frame;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Job admission control: an oversized Job runs alone, Jobs that do not fit
+ * next to it queue until it releases, and a stopped queued Job leaves the
+ * queue.
+ */
+public class JobAdmissionTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static final long HUGE = Long.MAX_VALUE>>2;
+
+  // Runs until the latch opens
+  private static class Blocker extends H2O.H2OCountedCompleter {
+    final CountDownLatch _go;
+    Blocker( CountDownLatch go ) { _go = go; }
+    @Override public void compute2() {
+      try { _go.await(); } catch( InterruptedException ignore ) { }
+      tryComplete();
+    }
+  }
+  // Opens the latch
+  private static class Signal extends H2O.H2OCountedCompleter {
+    final CountDownLatch _ran;
+    Signal( CountDownLatch ran ) { _ran = ran; }
+    @Override public void compute2() { _ran.countDown(); tryComplete(); }
+  }
+
+  private static Job<Frame> job( long bytes ) {
+    Job<Frame> j = new Job<>(null, null, "admission test");
+    j._mem_estimate = bytes;
+    return j;
+  }
+
+  @Test public void testQueueAdmitRelease() throws InterruptedException {
+    boolean old = H2O.ARGS.admission_control;
+    H2O.ARGS.admission_control = true;
+    CountDownLatch go = new CountDownLatch(1);
+    try {
+      Job<Frame> big = job(HUGE).start(new Blocker(go), 1);
+      Assert.assertFalse(big.isQueued()); // Nothing else reserved: admitted
+      CountDownLatch ran = new CountDownLatch(1);
+      Job<Frame> small = job(1).start(new Signal(ran), 1);
+      Assert.assertTrue(small.isQueued()); // Does not fit next to big
+      Assert.assertFalse(ran.await(200, TimeUnit.MILLISECONDS));
+      go.countDown();           // big finishes and releases
+      big.get();
+      small.get();
+      Assert.assertEquals(0, ran.getCount());
+      Assert.assertFalse(small.isQueued());
+    } finally {
+      go.countDown();
+      H2O.ARGS.admission_control = old;
+    }
+  }
+
+  @Test public void testStopQueued() {
+    boolean old = H2O.ARGS.admission_control;
+    H2O.ARGS.admission_control = true;
+    CountDownLatch go = new CountDownLatch(1);
+    try {
+      Job<Frame> big = job(HUGE).start(new Blocker(go), 1);
+      Job<Frame> small = job(1).start(new Signal(new CountDownLatch(1)), 1);
+      Assert.assertTrue(small.isQueued());
+      small.stop();             // Leaves the queue, started unreserved to finish
+      small.get();
+      Assert.assertTrue(small.isStopped());
+      Assert.assertTrue(big.isRunning());
+      go.countDown();
+      big.get();
+    } finally {
+      go.countDown();
+      H2O.ARGS.admission_control = old;
+    }
+  }
+
+  @Test public void testSmallJobsRunTogether() throws InterruptedException {
+    boolean old = H2O.ARGS.admission_control;
+    H2O.ARGS.admission_control = true;
+    CountDownLatch go = new CountDownLatch(1);
+    try {
+      Job<Frame> a = job(1<<20).start(new Blocker(go), 1);
+      CountDownLatch started = new CountDownLatch(1);
+      Job<Frame> b = job(1<<20).start(new Signal(started), 1);
+      Assert.assertFalse(b.isQueued());
+      Assert.assertTrue(started.await(10, TimeUnit.SECONDS)); // Ran while a still holds its reservation
+      b.get();
+      go.countDown();
+      a.get();
+    } finally {
+      go.countDown();
+      H2O.ARGS.admission_control = old;
+    }
+  }
+}
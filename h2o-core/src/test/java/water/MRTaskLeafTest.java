@@ -0,0 +1,102 @@
+package water;
+
+import org.junit.*;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+
+/**
+ * MRTask leaves mapping runs of chunks (-mr_leaf_us): every chunk homed here
+ * is mapped exactly once, chunks homed on other nodes are skipped, output
+ * Vecs match one-chunk-per-leaf runs, and the default stays reproducible.
+ */
+public class MRTaskLeafTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(3); }
+
+  // Chunk i holds 4 rows valued 4*i..4*i+3
+  private static Vec seq() {
+    Vec zeros = Vec.makeCon(0.0, 20000, 2, false);
+    Vec v = new MRTask() {
+      @Override public void map( Chunk c, NewChunk nc ) {
+        for( int r = 0; r < c._len; r++ ) nc.addNum(c.start()+r);
+      }
+    }.doAll(Vec.T_NUM, zeros).outputFrame().anyVec();
+    zeros.remove();
+    return v;
+  }
+
+  private static class Sum extends MRTask<Sum> {
+    long _chunks, _lsum; double _dsum;
+    @Override public void map( Chunk c ) {
+      _chunks++;
+      for( int r = 0; r < c._len; r++ ) {
+        double d = c.atd(r);
+        _lsum += (long)d;
+        _dsum += 1.0/(1.0+d);   // Order-sensitive in floating point
+      }
+    }
+    @Override public void reduce( Sum s ) { _chunks += s._chunks; _lsum += s._lsum; _dsum += s._dsum; }
+  }
+
+  private static class Twice extends MRTask<Twice> {
+    @Override public void map( Chunk c, NewChunk nc ) {
+      for( int r = 0; r < c._len; r++ ) nc.addNum(2*c.atd(r));
+    }
+  }
+
+  @Test public void testDefaultIsOneChunkPerLeaf() {
+    Assert.assertEquals(0, H2O.ARGS.mr_leaf_us);
+    Vec v = seq();
+    try {
+      Sum a = new Sum().doAll(v), b = new Sum().doAll(v);
+      Assert.assertEquals(v.nChunks(), a._chunks);
+      Assert.assertEquals(Double.doubleToLongBits(a._dsum), Double.doubleToLongBits(b._dsum));
+      Assert.assertEquals(1, MRTask.leafStats(Sum.class)._leaf);
+    } finally {
+      v.remove();
+    }
+  }
+
+  @Test public void testLeafRunsMapEveryChunkOnce() {
+    Vec v = seq();
+    int old = H2O.ARGS.mr_leaf_us;
+    H2O.ARGS.mr_leaf_us = Integer.MAX_VALUE; // Leaves as large as the cap allows
+    try {
+      new Sum().doAll(v);       // Costs for the next run to size leaves from
+      Sum s = new Sum().doAll(v);
+      Assert.assertTrue(MRTask.leafStats(Sum.class)._leaf > 1);
+      long n = v.length();
+      Assert.assertEquals(v.nChunks(), s._chunks); // Remote chunks mapped on their homes only
+      Assert.assertEquals(n*(n-1)/2, s._lsum);
+      H2O.ARGS.mr_leaf_us = 0;
+      Sum ref = new Sum().doAll(v);
+      Assert.assertEquals(ref._dsum, s._dsum, 1e-9*Math.abs(ref._dsum));
+    } finally {
+      H2O.ARGS.mr_leaf_us = old;
+      v.remove();
+    }
+  }
+
+  @Test public void testLeafRunsOutputVecs() {
+    Vec v = seq();
+    int old = H2O.ARGS.mr_leaf_us;
+    H2O.ARGS.mr_leaf_us = Integer.MAX_VALUE;
+    Frame out = null;
+    try {
+      Frame warmOut = new Twice().doAll(Vec.T_NUM, v).outputFrame();
+      warmOut.delete();
+      out = new Twice().doAll(Vec.T_NUM, v).outputFrame();
+      Assert.assertTrue(MRTask.leafStats(Twice.class)._leaf > 1);
+      Vec w = out.anyVec();
+      Assert.assertEquals(v.length(), w.length());
+      Assert.assertEquals(v.nChunks(), w.nChunks());
+      for( long r = 0; r < v.length(); r++ )
+        Assert.assertEquals(2*v.at(r), w.at(r), 0);
+    } finally {
+      H2O.ARGS.mr_leaf_us = old;
+      if( out != null ) out.delete();
+      v.remove();
+    }
+  }
+}
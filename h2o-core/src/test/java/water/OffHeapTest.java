@@ -0,0 +1,49 @@
+package water;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * The off-heap tier's budget: a copy reserves it, removing or replacing the
+ * Value returns it, and a dead Value is never copied again.
+ */
+public class OffHeapTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static Value value( int size ) {
+    return new Value(Key.make(), size, new byte[size], TypeMap.PRIM_B, Value.ICE);
+  }
+
+  @Test public void testReleaseReturnsBudget() {
+    int old = H2O.ARGS.offheap_mem;
+    H2O.ARGS.offheap_mem = 16;  // MB
+    try {
+      long used = MemoryManager.offHeapUsed();
+      Value v = value(1<<20);
+      Assert.assertTrue(v.moveOffHeap());
+      Assert.assertEquals(used + (1<<20), MemoryManager.offHeapUsed());
+      v.releaseOffHeap();
+      v.releaseOffHeap();       // Twice frees once
+      Assert.assertEquals(used, MemoryManager.offHeapUsed());
+      Assert.assertFalse(v.moveOffHeap());
+    } finally {
+      H2O.ARGS.offheap_mem = old;
+    }
+  }
+
+  @Test public void testDeadValueNeverCopied() {
+    int old = H2O.ARGS.offheap_mem;
+    H2O.ARGS.offheap_mem = 16;
+    try {
+      long used = MemoryManager.offHeapUsed();
+      Value v = value(1<<20);
+      v.releaseOffHeap();       // Replaced before the Cleaner got to it
+      Assert.assertFalse(v.moveOffHeap()); // A stale Cleaner snapshot reserves nothing
+      Assert.assertFalse(v.isOffHeap());
+      Assert.assertEquals(used, MemoryManager.offHeapUsed());
+    } finally {
+      H2O.ARGS.offheap_mem = old;
+    }
+  }
+}
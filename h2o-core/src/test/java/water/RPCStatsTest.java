@@ -0,0 +1,29 @@
+package water;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RPCStatsTest {
+
+  @Test public void testBuckets() {
+    // Every value lands in a bucket whose range holds it, within 12.5%
+    for( long v = 0; v < 1L<<40; v = v < 100 ? v+1 : v+v/7 ) {
+      int b = RPCStats.Histogram.bucket(v);
+      long lo = RPCStats.Histogram.lower(b), hi = RPCStats.Histogram.lower(b+1);
+      Assert.assertTrue(lo <= v && v < hi);
+      Assert.assertTrue(hi-lo <= Math.max(1, lo/8));
+    }
+    Assert.assertTrue(RPCStats.Histogram.bucket(Long.MAX_VALUE) < 64<<3);
+  }
+
+  @Test public void testQuantiles() {
+    RPCStats.Histogram h = new RPCStats.Histogram();
+    for( int i = 1; i <= 1000; i++ ) h.record(i*1000L);
+    Assert.assertEquals(1000, h.count());
+    Assert.assertEquals(1000000L, h.max());
+    long[] q = h.quantiles(0.5, 0.99, 1);
+    Assert.assertEquals(500000, q[0], 500000/8);
+    Assert.assertEquals(990000, q[1], 990000/8);
+    Assert.assertEquals(1000000L, q[2]);
+  }
+}
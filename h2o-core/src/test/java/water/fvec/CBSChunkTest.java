@@ -47,6 +47,14 @@ public class CBSChunkTest extends TestUtil {
     for( int i=0; i<ls.length; i++ )
       if(ls[i]!=Long.MIN_VALUE)assertEquals(ls[i], cc.at8(i));
       else assertTrue(cc.isNA(i));
+    // And bulk-decode correctly, from any starting row
+    for( int from=0; from<ls.length; from++ ) {
+      double[] ds = cc.getDoubles(new double[ls.length-from], from, ls.length);
+      int[] is = cc.getIntegers(new int[ls.length-from], from, ls.length, -1);
+      for( int i=from; i<ls.length; i++ )
+        if(ls[i]!=Long.MIN_VALUE) { assertEquals(ls[i], (long)ds[i-from]); assertEquals(ls[i], is[i-from]); }
+        else { assertTrue(Double.isNaN(ds[i-from])); assertEquals(-1, is[i-from]); }
+    }
 
     // materialize the vector (prerequisite to free the memory)
     Vec vv = av.layout_and_close(fs);
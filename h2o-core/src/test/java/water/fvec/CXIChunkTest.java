@@ -55,6 +55,17 @@ public class CXIChunkTest extends TestUtil {
         if (cc.isNA(i)) Assert.assertTrue(Double.isNaN(densevals[i]));
         else Assert.assertTrue(cc.at8(i)==(int)densevals[i]);
       }
+      // Sub-ranges, starting mid-gap and on a stored value
+      for (int from : new int[]{1, 3+l, 50, pos1}) {
+        int to = Math.min(from + 1000, cc.len());
+        double[] rangevals = cc.getDoubles(new double[to-from], from, to, -1);
+        int[] intvals = cc.getIntegers(new int[to-from], from, to, -1);
+        for (int i = from; i < to; ++i) {
+          long exp = cc.isNA(i) ? -1 : cc.at8(i);
+          Assert.assertEquals(exp, (long)rangevals[i-from]);
+          Assert.assertEquals(exp, intvals[i-from]);
+        }
+      }
 
       nc = new NewChunk(null, 0);
       cc.inflate_impl(nc);
@@ -0,0 +1,55 @@
+package water.fvec;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Job;
+import water.Key;
+import water.TestUtil;
+
+/**
+ * Vec pins are held per Job: a Job letting go, or completing, leaves the
+ * pins of other Jobs on the same Vec in place.
+ */
+public class PinTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testPinsPerJob() {
+    Vec v = Vec.makeCon(1.0, 1000);
+    Key<Job> a = Key.make(), b = Key.make();
+    try {
+      Key chk = v.chunkKey(0);
+      v.pin(a);
+      v.pin(b);
+      v.unpin(a);               // a is done; b still trains on v
+      Assert.assertTrue(Vec.isPinnedChunk(chk));
+      v.unpin(a);               // Twice is harmless
+      Assert.assertTrue(Vec.isPinnedChunk(chk));
+      v.unpin(b);
+      Assert.assertFalse(Vec.isPinnedChunk(chk));
+    } finally {
+      Vec.unpinAll(a);
+      Vec.unpinAll(b);
+      v.remove();
+    }
+  }
+
+  @Test public void testUnpinAllOnCompletion() {
+    Vec v = Vec.makeCon(1.0, 1000);
+    Frame fr = new Frame(new String[]{"x"}, new Vec[]{v});
+    Key<Job> a = Key.make(), b = Key.make();
+    try {
+      Key chk = v.chunkKey(0);
+      fr.pin(a);
+      v.pin(b);
+      Vec.unpinAll(a);          // a completed without unpinning
+      Assert.assertTrue(Vec.isPinnedChunk(chk));
+      Vec.unpinAll(b);
+      Assert.assertFalse(Vec.isPinnedChunk(chk));
+    } finally {
+      Vec.unpinAll(a);
+      Vec.unpinAll(b);
+      v.remove();
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package water.persist;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Key;
+import water.TestUtil;
+import water.TypeMap;
+import water.Value;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Log-structured ice persistence: values round-trip, compaction reclaims
+ * mostly-dead segments without losing live values, and appends racing with
+ * compaction are never lost.
+ */
+public class PersistLogTest extends TestUtil {
+  @BeforeClass
+  public static void stall() { stall_till_cloudsize(1); }
+
+  private static PersistLog log( long segSize ) throws IOException {
+    File root = Files.createTempDirectory("persistlog").toFile();
+    return new PersistLog(new PersistFS(root), segSize, false);
+  }
+
+  private static byte[] bytes( Random r, int len ) {
+    byte[] b = new byte[len];
+    r.nextBytes(b);
+    return b;
+  }
+
+  private static Value store( PersistLog log, Key k, byte[] b ) throws IOException {
+    Value v = new Value(k, b.length, b, TypeMap.PRIM_B, Value.ICE);
+    log.store(v);
+    return v;
+  }
+
+  private static void assertLoads( PersistLog log, Key k, byte[] b ) throws IOException {
+    Value v = new Value(k, b.length, null, TypeMap.PRIM_B, Value.ICE);
+    Assert.assertArrayEquals(b, log.load(v));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    PersistLog log = log(1<<20);
+    try {
+      Random r = new Random(42);
+      Key[] ks = new Key[50];
+      byte[][] bs = new byte[ks.length][];
+      for( int i = 0; i < ks.length; i++ )
+        store(log, ks[i] = Key.make(), bs[i] = bytes(r, 1 + r.nextInt(10000)));
+      for( int i = 0; i < ks.length; i++ )
+        assertLoads(log, ks[i], bs[i]);
+      // Re-storing a key replaces its bytes
+      byte[] b = bytes(r, 777);
+      store(log, ks[0], b);
+      assertLoads(log, ks[0], b);
+    } finally {
+      log.cleanUp();
+    }
+  }
+
+  @Test
+  public void testCompaction() throws IOException {
+    PersistLog log = log(64<<10);
+    try {
+      Random r = new Random(7);
+      Key[] ks = new Key[100];
+      byte[][] bs = new byte[ks.length][];
+      for( int i = 0; i < ks.length; i++ )
+        store(log, ks[i] = Key.make(), bs[i] = bytes(r, 4096));
+      int before = log.segmentFiles();
+      Assert.assertTrue(before > 4);
+      // Delete 3 out of 4 values, leaving every sealed segment mostly dead
+      for( int i = 0; i < ks.length; i++ )
+        if( (i&3) != 0 ) {
+          log.delete(new Value(ks[i], bs[i].length, null, TypeMap.PRIM_B, Value.ICE));
+          ks[i] = null;
+        }
+      log.compact();            // Copies survivors, retires old segments
+      log.compact();            // Drops the retired segments
+      Assert.assertTrue(log.segmentFiles() < before);
+      for( int i = 0; i < ks.length; i++ )
+        if( ks[i] != null )
+          assertLoads(log, ks[i], bs[i]);
+    } finally {
+      log.cleanUp();
+    }
+  }
+
+  @Test
+  public void testConcurrentStoreCompact() throws Exception {
+    final PersistLog log = log(32<<10);
+    try {
+      final int N = 4, M = 200;
+      final Key[][] ks = new Key[N][M];
+      final byte[][][] bs = new byte[N][M][];
+      final AtomicReference<Throwable> err = new AtomicReference<>();
+      Thread[] ts = new Thread[N];
+      for( int t = 0; t < N; t++ ) {
+        final int tid = t;
+        ts[t] = new Thread() {
+          @Override public void run() {
+            try {
+              Random r = new Random(tid);
+              for( int i = 0; i < M; i++ ) {
+                ks[tid][i] = Key.make();
+                store(log, ks[tid][i], bs[tid][i] = bytes(r, 1 + r.nextInt(2048)));
+                if( i > 0 && r.nextBoolean() ) { // Churn, so compaction has work
+                  log.delete(new Value(ks[tid][i-1], bs[tid][i-1].length, null, TypeMap.PRIM_B, Value.ICE));
+                  ks[tid][i-1] = null;
+                }
+              }
+            } catch( Throwable e ) { err.set(e); }
+          }
+        };
+        ts[t].start();
+      }
+      boolean alive = true;
+      while( alive ) {
+        log.compact();
+        alive = false;
+        for( Thread t : ts ) alive |= t.isAlive();
+      }
+      for( Thread t : ts ) t.join();
+      Assert.assertNull(err.get());
+      log.compact();
+      log.compact();
+      for( int t = 0; t < N; t++ )
+        for( int i = 0; i < M; i++ )
+          if( ks[t][i] != null )
+            assertLoads(log, ks[t][i], bs[t][i]);
+    } finally {
+      log.cleanUp();
+    }
+  }
+
+  @Test
+  public void testCleanUpRemovesRetired() throws IOException {
+    PersistLog log = log(16<<10);
+    Random r = new Random(3);
+    Key[] ks = new Key[20];
+    for( int i = 0; i < ks.length; i++ )
+      store(log, ks[i] = Key.make(), bytes(r, 4096));
+    for( Key k : ks )
+      log.delete(new Value(k, 4096, null, TypeMap.PRIM_B, Value.ICE));
+    log.compact();              // Leaves retired segments behind
+    log.cleanUp();
+    Assert.assertEquals(0, log.segmentFiles());
+  }
+}
@@ -0,0 +1,42 @@
+package water.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class LZ4Test {
+
+  private static void roundTrip(byte[] b) {
+    byte[] c = LZ4.compress(b);
+    Assert.assertTrue(c.length <= LZ4.maxCompressedLength(b.length));
+    Assert.assertArrayEquals(b, LZ4.decompress(c, b.length));
+  }
+
+  @Test public void testRoundTrip() {
+    Random r = new Random(0x5eed);
+    for( int len : new int[]{0, 1, 12, 13, 100, 4096, 1<<20} ) {
+      byte[] rnd = new byte[len], runs = new byte[len], small = new byte[len];
+      r.nextBytes(rnd);
+      for( int i=0; i<len; i++ ) {
+        runs [i] = (byte)(i%7);
+        small[i] = (byte)r.nextInt(3);
+      }
+      roundTrip(rnd);
+      roundTrip(runs);
+      roundTrip(small);
+    }
+  }
+
+  @Test public void testCompresses() {
+    byte[] b = new byte[1<<20];
+    for( int i=0; i<b.length; i+=64 ) b[i] = (byte)i;
+    Assert.assertTrue(LZ4.compress(b).length < b.length/8);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongLength() {
+    byte[] b = new byte[1000];
+    LZ4.decompress(LZ4.compress(b), 999);
+  }
+}
@@ -0,0 +1,19 @@
+package water.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NumaTopologyTest {
+
+  @Test public void testParseCpuList() {
+    Assert.assertArrayEquals(new int[]{0,1,2,3,8,10,11}, NumaTopology.parseCpuList("0-3,8,10-11\n"));
+    Assert.assertArrayEquals(new int[]{5}, NumaTopology.parseCpuList("5"));
+    Assert.assertArrayEquals(new int[0], NumaTopology.parseCpuList("\n"));
+  }
+
+  @Test public void testToCpuList() {
+    Assert.assertEquals("0-3,8,10-11", NumaTopology.toCpuList(new int[]{0,1,2,3,8,10,11}));
+    Assert.assertEquals("7", NumaTopology.toCpuList(new int[]{7}));
+    Assert.assertEquals("", NumaTopology.toCpuList(new int[0]));
+  }
+}
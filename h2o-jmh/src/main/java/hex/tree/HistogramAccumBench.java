@@ -0,0 +1,74 @@
+package hex.tree;
+
+import hex.CreateFrame;
+import hex.Distribution;
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.openjdk.jmh.annotations.*;
+import water.BenchCloud;
+import water.H2O;
+import water.fvec.Frame;
+
+import java.util.concurrent.TimeUnit;
+
+/** GBM training with its tree histograms accumulated atomically into the
+ *  node-shared histograms, into per-thread private copies, or picked per
+ *  pass (<code>-histo_accum</code>).  Best run on a many-core box. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistogramAccumBench {
+  @Param({"shared", "private", "auto"})
+  String mode;
+
+  @Param({"5", "10"})
+  int depth;
+
+  @Param({"2000000"})
+  long rows;
+
+  @Param({"50"})
+  int cols;
+
+  private Frame _fr;
+
+  @Setup(Level.Trial) public void setup() {
+    BenchCloud.start();
+    H2O.ARGS.histo_accum = mode;
+    CreateFrame cf = new CreateFrame();
+    cf.rows = rows;
+    cf.cols = cols;
+    cf.categorical_fraction = 0.1;
+    cf.integer_fraction = 0.3;
+    cf.binary_fraction = 0.1;
+    cf.missing_fraction = 0.01;
+    cf.factors = 20;
+    cf.response_factors = 1;
+    cf.has_response = true;
+    cf.seed = 1234;
+    _fr = cf.execImpl().get();
+  }
+
+  @TearDown(Level.Trial) public void tearDown() {
+    _fr.delete();
+  }
+
+  @Benchmark public double train() {
+    GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+    parms._train = _fr._key;
+    parms._response_column = "response";
+    parms._ntrees = 20;
+    parms._max_depth = depth;
+    parms._distribution = Distribution.Family.gaussian;
+    parms._seed = 42;
+    GBMModel gbm = new GBM(parms).trainModel().get();
+    try {
+      return gbm._output._training_metrics.mse();
+    } finally {
+      gbm.delete();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package water;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Serializing and deserializing primitive arrays through {@link AutoBuffer},
+ *  the path every Chunk, task and DKV value takes over the wire. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class AutoBufferBench {
+  @Param({"1024", "262144"})
+  int len;
+
+  private byte[] _bytes;
+  private int[] _ints;
+  private long[] _longs;
+  private double[] _doubles;
+  private byte[] _bytesSer, _intsSer, _longsSer, _doublesSer;
+
+  @Setup(Level.Trial) public void setup() {
+    BenchCloud.start();
+    Random r = new Random(0xCAFE);
+    _bytes = new byte[len];  r.nextBytes(_bytes);
+    _ints = new int[len];
+    _longs = new long[len];
+    _doubles = new double[len];
+    for( int i = 0; i < len; i++ ) {
+      _ints[i] = r.nextInt();
+      _longs[i] = r.nextLong();
+      _doubles[i] = r.nextGaussian();
+    }
+    _bytesSer = new AutoBuffer().putA1(_bytes).buf();
+    _intsSer = new AutoBuffer().putA4(_ints).buf();
+    _longsSer = new AutoBuffer().putA8(_longs).buf();
+    _doublesSer = new AutoBuffer().putA8d(_doubles).buf();
+  }
+
+  @Benchmark public byte[] putA1() { return new AutoBuffer().putA1(_bytes).buf(); }
+  @Benchmark public byte[] putA4() { return new AutoBuffer().putA4(_ints).buf(); }
+  @Benchmark public byte[] putA8() { return new AutoBuffer().putA8(_longs).buf(); }
+  @Benchmark public byte[] putA8d() { return new AutoBuffer().putA8d(_doubles).buf(); }
+
+  @Benchmark public byte[] getA1() { return new AutoBuffer(_bytesSer).getA1(); }
+  @Benchmark public int[] getA4() { return new AutoBuffer(_intsSer).getA4(); }
+  @Benchmark public long[] getA8() { return new AutoBuffer(_longsSer).getA8(); }
+  @Benchmark public double[] getA8d() { return new AutoBuffer(_doublesSer).getA8d(); }
+}
@@ -0,0 +1,17 @@
+package water;
+
+/** Boots a private single-node H2O cloud inside a JMH fork.  Each fork is a
+ *  fresh JVM, and an H2O cloud cannot be shut down and restarted within one,
+ *  so the cloud is started once and lives until the fork exits. */
+public class BenchCloud {
+  private static boolean _started;
+
+  public static synchronized void start() {
+    if( !_started ) {
+      // Unique cloud name, so concurrent forks never cluster together
+      H2O.main(new String[]{"-name", "h2o-jmh-" + System.nanoTime(), "-disable_web"});
+      _started = true;
+    }
+    H2O.waitForCloudSize(1, 30000);
+  }
+}
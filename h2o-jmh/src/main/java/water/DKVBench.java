@@ -0,0 +1,58 @@
+package water;
+
+import org.openjdk.jmh.annotations.*;
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.concurrent.TimeUnit;
+
+/** Local K/V store operations: the raw {@link NonBlockingHashMap} underneath
+ *  the store, and {@link DKV} put/get/remove of keys homed on this node. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DKVBench {
+  @Param({"65536"})
+  int nkeys;
+
+  private Key[] _keys;
+  private Value[] _vals;
+  private NonBlockingHashMap<Key,Value> _nbhm;
+
+  @Setup(Level.Trial) public void setup() {
+    BenchCloud.start();
+    _keys = new Key[nkeys];
+    _vals = new Value[nkeys];
+    _nbhm = new NonBlockingHashMap<>();
+    for( int i = 0; i < nkeys; i++ ) {
+      _keys[i] = Key.make("jmh_" + i, (byte)0, Key.BUILT_IN_KEY, false, H2O.SELF);
+      _vals[i] = new Value(_keys[i], new byte[64]);
+      _nbhm.put(_keys[i], _vals[i]);
+      DKV.put(_keys[i], _vals[i]);
+    }
+  }
+
+  @TearDown(Level.Trial) public void tearDown() {
+    for( Key k : _keys ) DKV.remove(k);
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int _i;
+    int next( int n ) { return _i = (_i + 1) % n; }
+  }
+
+  @Benchmark public Value nbhmGet( Cursor c ) { return _nbhm.get(_keys[c.next(nkeys)]); }
+  @Benchmark public Value nbhmPut( Cursor c ) { int i = c.next(nkeys); return _nbhm.put(_keys[i], _vals[i]); }
+
+  @Benchmark @Threads(4) public Value nbhmGetContended( Cursor c ) { return _nbhm.get(_keys[c.next(nkeys)]); }
+
+  @Benchmark public Value dkvGet( Cursor c ) { return DKV.get(_keys[c.next(nkeys)]); }
+
+  @Benchmark public Value dkvPut( Cursor c ) {
+    int i = c.next(nkeys);
+    return DKV.put(_keys[i], new Value(_keys[i], _vals[i].memOrLoad()));
+  }
+}
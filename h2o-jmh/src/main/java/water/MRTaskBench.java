@@ -0,0 +1,52 @@
+package water;
+
+import org.openjdk.jmh.annotations.*;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+import java.util.concurrent.TimeUnit;
+
+/** Single-node {@link MRTask} fan-out: an empty map measures pure task
+ *  splitting, reduction and completion overhead per chunk; a sum adds
+ *  reading the data. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MRTaskBench {
+  @Param({"16", "256", "4096"})
+  int nchunks;
+
+  @Param({"1024"})
+  int rowsPerChunk;
+
+  private Vec _vec;
+
+  @Setup(Level.Trial) public void setup() {
+    BenchCloud.start();
+    int log = 31 - Integer.numberOfLeadingZeros(rowsPerChunk);
+    _vec = Vec.makeCon(1.0, (long)nchunks << log, log, false);
+  }
+
+  @TearDown(Level.Trial) public void tearDown() {
+    _vec.remove();
+  }
+
+  private static class Noop extends MRTask<Noop> {
+    @Override public void map( Chunk c ) { }
+  }
+
+  private static class Sum extends MRTask<Sum> {
+    double _sum;
+    @Override public void map( Chunk c ) {
+      for( int i = 0; i < c._len; i++ ) _sum += c.atd(i);
+    }
+    @Override public void reduce( Sum s ) { _sum += s._sum; }
+  }
+
+  @Benchmark public Noop noop() { return new Noop().doAll(_vec); }
+
+  @Benchmark public double sum() { return new Sum().doAll(_vec)._sum; }
+}
@@ -0,0 +1,59 @@
+package water.fvec;
+
+import org.openjdk.jmh.annotations.*;
+import water.BenchCloud;
+
+import java.util.concurrent.TimeUnit;
+
+/** Reading every row of a compressed Chunk: per-row {@link Chunk#atd} versus
+ *  the bulk {@link Chunk#getDoubles} and {@link Chunk#asSparseDoubles}
+ *  decoders. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class ChunkReadBench {
+  @Param({"bool", "bool_na", "ubyte", "ubyte_na", "byte_scaled", "short", "short_scaled", "int", "int_scaled",
+          "float", "long", "double", "few_doubles", "const", "const_double", "sparse_int", "sparse_double", "sparse_bool"})
+  String shape;
+
+  @Param({"65536"})
+  int rows;
+
+  private Chunk _chk;
+  private double[] _vals;
+  private int[] _ids;
+
+  @Setup(Level.Trial) public void setup() {
+    BenchCloud.start();
+    _chk = ChunkShapes.newChunk(ChunkShapes.values(shape, rows, 0xCAFE)).compress();
+    _vals = new double[rows];
+    _ids = new int[rows];
+  }
+
+  @Benchmark public double atd() {
+    final Chunk c = _chk;
+    double sum = 0;
+    for( int i = 0; i < c._len; i++ ) {
+      double d = c.atd(i);
+      if( !Double.isNaN(d) ) sum += d;
+    }
+    return sum;
+  }
+
+  @Benchmark public double getDoubles() {
+    final double[] vals = _chk.getDoubles(_vals, 0, _chk._len, 0);
+    double sum = 0;
+    for( int i = 0; i < _chk._len; i++ ) sum += vals[i];
+    return sum;
+  }
+
+  @Benchmark public double asSparseDoubles() {
+    int n = _chk.asSparseDoubles(_vals, _ids, 0);
+    double sum = 0;
+    for( int i = 0; i < n; i++ ) sum += _vals[i];
+    return sum;
+  }
+}
@@ -0,0 +1,72 @@
+package water.fvec;
+
+import java.util.Random;
+
+/** Synthetic column data shaped to land in each compressed Chunk encoding.
+ *  Shape names are benchmark parameters; the comment next to each names the
+ *  encoding {@link NewChunk#compress} is expected to pick. */
+public class ChunkShapes {
+  public static final String[] SHAPES = {
+    "bool",         // CBSChunk, 1 bit per value
+    "bool_na",      // CBSChunk, 2 bits per value
+    "ubyte",        // C1NChunk
+    "ubyte_na",     // C1Chunk
+    "byte_scaled",  // C1SChunk
+    "short",        // C2Chunk
+    "short_scaled", // C2SChunk
+    "int",          // C4Chunk
+    "int_scaled",   // C4SChunk
+    "float",        // C4FChunk
+    "long",         // C8Chunk
+    "double",       // C8DChunk
+    "few_doubles",  // CUDChunk
+    "const",        // C0LChunk
+    "const_double", // C0DChunk
+    "sparse_int",   // CXIChunk
+    "sparse_double",// CXDChunk
+    "sparse_bool",  // CX0Chunk
+  };
+
+  /** Values for a column of the given shape; NaN marks a missing value. */
+  public static double[] values( String shape, int len, long seed ) {
+    Random r = new Random(seed);
+    double[] ds = new double[len];
+    for( int i = 0; i < len; i++ ) {
+      double d;
+      switch( shape ) {
+      case "bool":          d = r.nextInt(2); break;
+      case "bool_na":       d = r.nextInt(10) == 0 ? Double.NaN : r.nextInt(2); break;
+      case "ubyte":         d = r.nextInt(250); break;
+      case "ubyte_na":      d = r.nextInt(10) == 0 ? Double.NaN : r.nextInt(250); break;
+      case "byte_scaled":   d = r.nextInt(250) / 10.0; break;
+      case "short":         d = r.nextInt(60000) - 30000; break;
+      case "short_scaled":  d = r.nextInt(60000) / 100.0; break;
+      case "int":           d = r.nextInt(2000000000) - 1000000000; break;
+      case "int_scaled":    d = r.nextInt(2000000000) / 1000.0; break;
+      case "float":         d = (float)r.nextGaussian(); break;
+      case "long":          d = r.nextLong() >> 12; break;
+      case "double":        d = r.nextGaussian(); break;
+      case "few_doubles":   d = Math.PI * r.nextInt(8); break;
+      case "const":         d = 42; break;
+      case "const_double":  d = Math.E; break;
+      case "sparse_int":    d = r.nextInt(100) == 0 ? r.nextInt(1000) + 1 : 0; break;
+      case "sparse_double": d = r.nextInt(100) == 0 ? r.nextGaussian() : 0; break;
+      case "sparse_bool":   d = r.nextInt(100) == 0 ? 1 : 0; break;
+      default: throw new IllegalArgumentException("Unknown chunk shape " + shape);
+      }
+      ds[i] = d;
+    }
+    return ds;
+  }
+
+  /** An uncompressed NewChunk holding the given values. */
+  public static NewChunk newChunk( double[] ds ) {
+    NewChunk nc = new NewChunk(null, 0);
+    for( double d : ds ) {
+      if( Double.isNaN(d) ) nc.addNA();
+      else if( d == (long)d ) nc.addNum((long)d, 0);
+      else nc.addNum(d);
+    }
+    return nc;
+  }
+}
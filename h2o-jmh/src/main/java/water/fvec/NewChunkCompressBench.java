@@ -0,0 +1,39 @@
+package water.fvec;
+
+import org.openjdk.jmh.annotations.*;
+import water.BenchCloud;
+
+import java.util.concurrent.TimeUnit;
+
+/** Cost of {@link NewChunk#compress()} for each target encoding. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class NewChunkCompressBench {
+  @Param({"bool", "bool_na", "ubyte", "ubyte_na", "byte_scaled", "short", "short_scaled", "int", "int_scaled",
+          "float", "long", "double", "few_doubles", "const", "const_double", "sparse_int", "sparse_double", "sparse_bool"})
+  String shape;
+
+  @Param({"65536"})
+  int rows;
+
+  private double[] _values;
+  private NewChunk _nc;
+
+  @Setup(Level.Trial) public void setupTrial() {
+    BenchCloud.start();
+    _values = ChunkShapes.values(shape, rows, 0xCAFE);
+  }
+
+  // Compression consumes the NewChunk; build a fresh one outside the timing
+  @Setup(Level.Invocation) public void setupInvocation() {
+    _nc = ChunkShapes.newChunk(_values);
+  }
+
+  @Benchmark public Chunk compress() {
+    return _nc.compress();
+  }
+}
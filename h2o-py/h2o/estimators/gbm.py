@@ -99,6 +99,9 @@ class H2OGradientBoostingEstimator(H2OEstimator):
     Can be one of "AUTO", "UniformAdaptive", "Random", "QuantilesGlobal" or "RoundRobin".
   max_abs_leafnode_pred : float
     Maximum absolute value of a leaf node prediction.
+  max_leaves : int
+    Grow trees best-first, splitting the leaf with the largest error reduction, up to this many leaves.
+    0 grows trees level by level up to max_depth.
 
   Returns
   -------
@@ -114,7 +117,7 @@ class H2OGradientBoostingEstimator(H2OEstimator):
                keep_cross_validation_fold_assignment=None,
                stopping_rounds=None, stopping_metric=None, stopping_tolerance=None,
                score_each_iteration=None, score_tree_interval=None, checkpoint=None,
-               min_split_improvement=None, histogram_type=None, max_abs_leafnode_pred=None):
+               min_split_improvement=None, histogram_type=None, max_abs_leafnode_pred=None, max_leaves=None):
     super(H2OGradientBoostingEstimator, self).__init__()
     self._parms = locals()
     self._parms = {k:v for k,v in self._parms.items() if k!="self"}
@@ -390,3 +393,11 @@ class H2OGradientBoostingEstimator(H2OEstimator):
   @max_abs_leafnode_pred.setter
   def max_abs_leafnode_pred(self, value):
     self._parms["max_abs_leafnode_pred"] = value
+
+  @property
+  def max_leaves(self):
+    return self._parms["max_leaves"]
+
+  @max_leaves.setter
+  def max_leaves(self, value):
+    self._parms["max_leaves"] = value